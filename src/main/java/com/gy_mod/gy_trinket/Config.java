@@ -1,5 +1,7 @@
 package com.gy_mod.gy_trinket;
 
+import com.gy_mod.gy_trinket.item.ModItems;
+import com.gy_mod.gy_trinket.item.ShieldItemGy;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.world.item.Item;
 import net.minecraftforge.common.ForgeConfigSpec;
@@ -7,7 +9,9 @@ import net.minecraftforge.eventbus.api.SubscribeEvent;
 import net.minecraftforge.fml.common.Mod;
 import net.minecraftforge.fml.event.config.ModConfigEvent;
 import net.minecraftforge.registries.ForgeRegistries;
+import net.minecraftforge.registries.RegistryObject;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -117,6 +121,11 @@ public class Config
     private static final ForgeConfigSpec.DoubleValue REFLECT_SHIELD_SPEED_MODIFIER = BUILDER
             .comment("反射速度修正 - 作为乘数应用于反射后的烈焰弹速度")
             .defineInRange("shield.gy_trinket.shield_reflect.speedModifier", 0.3, 0.0, 100.0);
+    
+    // 反射烈焰弹的维度数量上限
+    private static final ForgeConfigSpec.IntValue REFLECT_SHIELD_MAX_FIREBALLS_PER_LEVEL = BUILDER
+            .comment("每个维度同时存在的反射烈焰弹数量上限（0表示不限制），超出时移除最早生成的烈焰弹")
+            .defineInRange("shield.gy_trinket.shield_reflect.maxFireballsPerLevel", 64, 0, 10000);
 
     private static final ForgeConfigSpec.IntValue REINFORCED_SHIELD_REBUILD_WAIT_TIME = BUILDER
             .comment("反射护盾重构机制的冷却时间（单位：刻）")
@@ -270,6 +279,23 @@ public class Config
             .comment("火环对自身护盾值造成的损耗数值")
             .defineInRange("shield.gy_trinket.shield_fire_ring.fireRingShieldCost", 0.05, 0.0, 100.0);
 
+    private static final ForgeConfigSpec.IntValue FIRE_RING_MAX_TARGETS_PER_TRIGGER = BUILDER
+            .comment("火环每次触发最多伤害的生物数量（0表示不限制）")
+            .defineInRange("shield.gy_trinket.shield_fire_ring.fireRingMaxTargetsPerTrigger", 0, 0, 1000);
+
+    private static final ForgeConfigSpec.IntValue FIRE_RING_TARGET_BUDGET_PER_TICK = BUILDER
+            .comment("所有玩家的火环每个服务器刻最多伤害的生物总数（0表示不限制），超出时剩余玩家的火环顺延到下一刻触发")
+            .defineInRange("shield.gy_trinket.shield_fire_ring.fireRingTargetBudgetPerTick", 256, 0, 100000);
+
+    private static final ForgeConfigSpec.IntValue FIRE_RING_MAX_INTERVAL_SCALE = BUILDER
+            .comment("服务器卡顿（MSPT超过50）时火环触发间隔最多放大的倍数，伤害按实际间隔等比放大以保持每秒伤害不变（1表示不放大）")
+            .defineInRange("shield.gy_trinket.shield_fire_ring.fireRingMaxIntervalScale", 4, 1, 10);
+
+    // ========== 网络同步配置 ==========
+    private static final ForgeConfigSpec.BooleanValue USE_LEGACY_SYNC_PACKET = BUILDER
+            .comment("是否使用旧的护盾同步数据包（每次发送所有字段）；关闭时使用只发送变化字段的紧凑数据包")
+            .define("shield.gy_trinket.network.useLegacySyncPacket", false);
+
     // 构建配置规范
     static final ForgeConfigSpec SPEC = BUILDER.build();
 
@@ -280,30 +306,31 @@ public class Config
     public static String magicNumberIntroduction;
     public static Set<Item> items;
 
-    // 护盾配置值类，用于存储单种护盾的所有配置参数
+    // 护盾配置值类，用于存储单种护盾的所有配置参数（不可变快照，配置重载时整体替换）
     public static class ShieldConfig {
-        public int maxShield;            // 最大护盾值
-        public int shieldRebuildWaitTime; // 护盾重构触发等待时间（刻）
-        public int shieldRebuildDuration; // 护盾重构持续时间（刻，从0到满所需时间）
-        public int shieldMaxWaitTime;    // 护盾重构最大等待时间（刻）
-        public int shieldWaitTimeExtensionOnHurt; // 受到伤害时延长的等待时间（刻）
-        public double shieldCooldownExtensionMultiplier; // 每点伤害提升的冷却延长倍数值
-        public double shieldNormalRegenPercentage; // 护盾有剩余值时的每秒恢复百分比
-        public int shieldNormalRegenInterval; // 护盾自然恢复的时间间隔（刻）
-        public int shieldInvulnerabilityDuration; // 护盾抵挡伤害后的无敌时间（刻）
-        public int shieldZeroShieldCooldownDelay; // 护盾值为零时的冷却触发内置冷却时间（刻）
+        public final int maxShield;            // 最大护盾值
+        public final int shieldRebuildWaitTime; // 护盾重构触发等待时间（刻）
+        public final int shieldRebuildDuration; // 护盾重构持续时间（刻，从0到满所需时间）
+        public final int shieldMaxWaitTime;    // 护盾重构最大等待时间（刻）
+        public final int shieldWaitTimeExtensionOnHurt; // 受到伤害时延长的等待时间（刻）
+        public final double shieldCooldownExtensionMultiplier; // 每点伤害提升的冷却延长倍数值
+        public final double shieldNormalRegenPercentage; // 护盾有剩余值时的每秒恢复百分比
+        public final int shieldNormalRegenInterval; // 护盾自然恢复的时间间隔（刻）
+        public final int shieldInvulnerabilityDuration; // 护盾抵挡伤害后的无敌时间（刻）
+        public final int shieldZeroShieldCooldownDelay; // 护盾值为零时的冷却触发内置冷却时间（刻）
         
         // 火环相关配置
-        public int fireRingTriggerFrequency; // 火环触发频率（单位：刻）
-        public double fireRingDamage; // 火环基础伤害值
-        public double fireRingRadius; // 火环生效半径（同时控制粒子生成半径）
-        public int fireRingPlayerAttackExemptionTime; // 玩家攻击豁免对象受到火环攻击的时间（单位：刻）
-        public double fireRingShieldCost; // 火环对自身护盾值造成的损耗数值
+        public final int fireRingTriggerFrequency; // 火环触发频率（单位：刻）
+        public final double fireRingDamage; // 火环基础伤害值
+        public final double fireRingRadius; // 火环生效半径（同时控制粒子生成半径）
+        public final int fireRingPlayerAttackExemptionTime; // 玩家攻击豁免对象受到火环攻击的时间（单位：刻）
+        public final double fireRingShieldCost; // 火环对自身护盾值造成的损耗数值
+        public final int fireRingMaxTargetsPerTrigger; // 火环每次触发最多伤害的生物数量（0表示不限制）
         
         // 增幅相关配置
-        public double amplifierDamageBonusPerShield; // 每一点损失的护盾值转换的伤害提升效果的数值（%）
-        public int amplifierDamageBonusFrequency; // 持续消耗护盾值的频率（单位：刻）
-        public double amplifierDamageBonusShieldCost; // 持续消耗护盾值的百分比（%）
+        public final double amplifierDamageBonusPerShield; // 每一点损失的护盾值转换的伤害提升效果的数值（%）
+        public final int amplifierDamageBonusFrequency; // 持续消耗护盾值的频率（单位：刻）
+        public final double amplifierDamageBonusShieldCost; // 持续消耗护盾值的百分比（%）
         
         // 默认构造函数
         public ShieldConfig() {
@@ -324,6 +351,7 @@ public class Config
             this.fireRingRadius = 3.0; // 默认火环半径
             this.fireRingPlayerAttackExemptionTime = 20; // 20刻 = 1秒
             this.fireRingShieldCost = 0.1;
+            this.fireRingMaxTargetsPerTrigger = 0; // 不限制
             
             // 增幅默认配置
             this.amplifierDamageBonusPerShield = 6.0; // 默认1损失盾值转化6%伤害提升
@@ -338,7 +366,7 @@ public class Config
                           int shieldNormalRegenInterval, int shieldInvulnerabilityDuration,
                           int shieldZeroShieldCooldownDelay,
                           int fireRingTriggerFrequency, double fireRingDamage, double fireRingRadius,
-                          int fireRingPlayerAttackExemptionTime, double fireRingShieldCost,
+                          int fireRingPlayerAttackExemptionTime, double fireRingShieldCost, int fireRingMaxTargetsPerTrigger,
                           double amplifierDamageBonusPerShield, int amplifierDamageBonusFrequency, double amplifierDamageBonusShieldCost) {
             this.maxShield = maxShield;
             this.shieldRebuildWaitTime = shieldRebuildWaitTime;
@@ -357,6 +385,7 @@ public class Config
             this.fireRingRadius = fireRingRadius;
             this.fireRingPlayerAttackExemptionTime = fireRingPlayerAttackExemptionTime;
             this.fireRingShieldCost = fireRingShieldCost;
+            this.fireRingMaxTargetsPerTrigger = fireRingMaxTargetsPerTrigger;
             
             // 增幅默认配置
             this.amplifierDamageBonusPerShield = amplifierDamageBonusPerShield;
@@ -365,8 +394,11 @@ public class Config
         }
     }
     
-    // 存储所有护盾类型的配置
-    public static final Map<String, ShieldConfig> SHIELD_CONFIGS = new HashMap<>();
+    // 配置尚未加载时使用的默认护盾配置
+    public static final ShieldConfig DEFAULT_SHIELD_CONFIG = new ShieldConfig();
+    
+    // 存储所有护盾类型的配置（只读，配置重载时构建新的映射后整体替换，读取方不会看到加载到一半的配置）
+    public static volatile Map<String, ShieldConfig> SHIELD_CONFIGS = Collections.emptyMap();
     
     // 向后兼容的全局配置值（保留这些值以便现有代码继续工作）
     public static int maxShield;            // 最大护盾值
@@ -383,6 +415,10 @@ public class Config
     public static double reflectShieldExplosionRadius; // 反射烈焰弹的爆炸范围
     public static double reflectShieldDamageModifier; // 反射伤害修正系数
     public static double reflectShieldSpeedModifier; // 反射速度修正系数
+    public static int reflectShieldMaxFireballsPerLevel; // 每个维度同时存在的反射烈焰弹数量上限（0表示不限制）
+    public static int fireRingTargetBudgetPerTick; // 所有玩家的火环每个服务器刻最多伤害的生物总数（0表示不限制）
+    public static int fireRingMaxIntervalScale; // 服务器卡顿时火环触发间隔最多放大的倍数
+    public static boolean useLegacySyncPacket; // 是否使用旧的护盾同步数据包
 
     // 验证物品名称是否有效
     private static boolean validateItemName(final Object obj)
@@ -418,8 +454,8 @@ public class Config
                 .map(itemName -> ForgeRegistries.ITEMS.getValue(ResourceLocation.tryParse(itemName)))
                 .collect(Collectors.toSet());
 
-        // 清空护盾配置
-        SHIELD_CONFIGS.clear();
+        // 构建新的护盾配置映射
+        Map<String, ShieldConfig> shieldConfigs = new HashMap<>();
         
         // 加载默认护盾配置（gy_trinket:shield_gy）
         ShieldConfig defaultConfig = new ShieldConfig(
@@ -438,13 +474,14 @@ public class Config
                 3.0, // 默认火环半径 (不使用)
                 20, // 默认玩家攻击豁免时间 (不使用)
                 0.1, // 默认护盾损耗 (不使用)
+                0, // 默认火环目标数量上限 (不使用)
                 0.0, // 默认无伤害加成
                 20, // 默认极低频率
                 0.0 // 默认无护盾消耗
         );
         
         // 存储默认护盾配置
-        SHIELD_CONFIGS.put("gy_trinket:shield_gy", defaultConfig);
+        shieldConfigs.put("gy_trinket:shield_gy", defaultConfig);
         
         // 加载反射护盾配置（gy_trinket:shield_reflect）
         ShieldConfig reinforcedConfig = new ShieldConfig(
@@ -463,13 +500,14 @@ public class Config
                 3.0, // 默认火环半径 (不使用)
                 20, // 默认玩家攻击豁免时间 (不使用)
                 0.1, // 默认护盾损耗 (不使用)
+                0, // 默认火环目标数量上限 (不使用)
                 0.0, // 默认无伤害加成
                 20, // 默认极低频率
                 0.0 // 默认无护盾消耗
         );
         
         // 存储强化护盾配置
-        SHIELD_CONFIGS.put("gy_trinket:shield_reflect", reinforcedConfig);
+        shieldConfigs.put("gy_trinket:shield_reflect", reinforcedConfig);
         
         // 加载火环护盾配置（gy_trinket:shield_fire_ring）
         ShieldConfig fireRingConfig = new ShieldConfig(
@@ -488,13 +526,14 @@ public class Config
                 FIRE_RING_RADIUS.get(),
                 FIRE_RING_PLAYER_ATTACK_EXEMPTION_TIME.get(),
                 FIRE_RING_SHIELD_COST.get(),
+                FIRE_RING_MAX_TARGETS_PER_TRIGGER.get(),
                 0.0, // 默认无伤害加成
                 20, // 默认极低频率
                 0.0 // 默认无护盾消耗
         );
         
         // 存储火环护盾配置
-        SHIELD_CONFIGS.put("gy_trinket:shield_fire_ring", fireRingConfig);
+        shieldConfigs.put("gy_trinket:shield_fire_ring", fireRingConfig);
         
         // 加载增幅护盾配置（gy_trinket:shield_amplifier）
         ShieldConfig amplifierConfig = new ShieldConfig(
@@ -513,6 +552,7 @@ public class Config
                 3.0, // 默认火环半径 (不使用)
                 20, // 默认玩家攻击豁免时间 (不使用)
                 0.1, // 默认护盾损耗 (不使用)
+                0, // 默认火环目标数量上限 (不使用)
                 // 增幅特效配置
                 AMPLIFIER_SHIELD_DAMAGE_BONUS_PER_SHIELD.get(),
                 AMPLIFIER_SHIELD_DAMAGE_BONUS_FREQUENCY.get(),
@@ -520,7 +560,16 @@ public class Config
         );
         
         // 存储增幅护盾配置
-        SHIELD_CONFIGS.put("gy_trinket:shield_amplifier", amplifierConfig);
+        shieldConfigs.put("gy_trinket:shield_amplifier", amplifierConfig);
+        
+        // 整体替换护盾配置，并将新的配置快照绑定到各护盾物品上
+        SHIELD_CONFIGS = Collections.unmodifiableMap(shieldConfigs);
+        for (RegistryObject<Item> entry : ModItems.ITEMS.getEntries()) {
+            // 物品尚未注册时跳过，首次访问配置时再绑定
+            if (entry.isPresent() && entry.get() instanceof ShieldItemGy shieldItem) {
+                shieldItem.bindShieldConfig(shieldConfigs);
+            }
+        }
         
         // 为向后兼容，设置全局配置值为默认护盾的配置
         maxShield = defaultConfig.maxShield;
@@ -537,20 +586,30 @@ public class Config
         reflectShieldExplosionRadius = REFLECT_SHIELD_EXPLOSION_RADIUS.get();
         reflectShieldDamageModifier = REFLECT_SHIELD_DAMAGE_MODIFIER.get();
         reflectShieldSpeedModifier = REFLECT_SHIELD_SPEED_MODIFIER.get();
+        reflectShieldMaxFireballsPerLevel = REFLECT_SHIELD_MAX_FIREBALLS_PER_LEVEL.get();
+        fireRingTargetBudgetPerTick = FIRE_RING_TARGET_BUDGET_PER_TICK.get();
+        fireRingMaxIntervalScale = FIRE_RING_MAX_INTERVAL_SCALE.get();
+        useLegacySyncPacket = USE_LEGACY_SYNC_PACKET.get();
     }
     
     // 获取特定护盾类型的配置
     public static ShieldConfig getShieldConfig(String shieldType) {
-        return SHIELD_CONFIGS.getOrDefault(shieldType, new ShieldConfig());
+        return SHIELD_CONFIGS.getOrDefault(shieldType, DEFAULT_SHIELD_CONFIG);
     }
     
     // 获取特定护盾类型的配置，如果未找到则返回默认配置
     public static ShieldConfig getShieldConfigOrDefault(String shieldType) {
-        ShieldConfig defaultConfig = SHIELD_CONFIGS.get("gy_trinket:shield_gy");
-        if (defaultConfig == null) {
-            // 如果默认配置也不存在，创建一个临时的默认配置
-            defaultConfig = new ShieldConfig();
+        return getShieldConfigOrDefault(SHIELD_CONFIGS, shieldType);
+    }
+    
+    // 从指定的护盾配置映射中获取特定护盾类型的配置，如果未找到则返回默认配置
+    public static ShieldConfig getShieldConfigOrDefault(Map<String, ShieldConfig> shieldConfigs, String shieldType) {
+        ShieldConfig config = shieldConfigs.get(shieldType);
+        if (config != null) {
+            return config;
         }
-        return SHIELD_CONFIGS.getOrDefault(shieldType, defaultConfig);
+        ShieldConfig defaultConfig = shieldConfigs.get("gy_trinket:shield_gy");
+        // 如果默认配置也不存在（配置尚未加载），使用内置的默认配置
+        return defaultConfig != null ? defaultConfig : DEFAULT_SHIELD_CONFIG;
     }
 }
\ No newline at end of file
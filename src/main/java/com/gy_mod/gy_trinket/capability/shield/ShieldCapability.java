@@ -0,0 +1,84 @@
+package com.gy_mod.gy_trinket.capability.shield;
+
+import com.gy_mod.gy_trinket.gy_trinket;
+import com.gy_mod.gy_trinket.shield.ShieldState;
+import com.gy_mod.gy_trinket.shield.ShieldTimerWheel;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.entity.player.Player;
+import net.minecraftforge.common.MinecraftForge;
+import net.minecraftforge.common.capabilities.Capability;
+import net.minecraftforge.common.capabilities.CapabilityManager;
+import net.minecraftforge.common.capabilities.CapabilityToken;
+import net.minecraftforge.common.capabilities.RegisterCapabilitiesEvent;
+import net.minecraftforge.event.AttachCapabilitiesEvent;
+import net.minecraftforge.event.entity.player.PlayerEvent;
+import net.minecraftforge.eventbus.api.IEventBus;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+
+/**
+ * 护盾能力类
+ * 将玩家护盾状态（ShieldState）作为Forge能力附加在玩家实体上，
+ * 访问时直接读取实体上的字段，状态随实体一起回收，不再需要在登出时手动清理
+ */
+public class ShieldCapability {
+    // 护盾状态能力
+    public static final Capability<ShieldState> SHIELD_STATE = CapabilityManager.get(new CapabilityToken<>() {});
+    // 能力ID（同时作为保存在玩家NBT中的键）
+    public static final ResourceLocation ID = ResourceLocation.fromNamespaceAndPath(gy_trinket.MOD_ID, "shield_state");
+
+    /**
+     * 获取玩家的护盾状态
+     * @param player 玩家对象
+     * @return 护盾状态，如果能力未附加（或已失效）则返回null
+     */
+    public static ShieldState get(Player player) {
+        return player.getCapability(SHIELD_STATE).orElse(null);
+    }
+
+    /**
+     * 注册能力和相关事件
+     * @param eventBus 模组事件总线
+     */
+    public static void register(IEventBus eventBus) {
+        eventBus.addListener(ShieldCapability::onRegisterCapabilities);
+        MinecraftForge.EVENT_BUS.register(new ShieldCapability());
+    }
+
+    /**
+     * 注册能力类型
+     */
+    private static void onRegisterCapabilities(RegisterCapabilitiesEvent event) {
+        event.register(ShieldState.class);
+    }
+
+    // ========== 1. 为玩家附加护盾能力 ==========
+    @SubscribeEvent
+    public void onAttachCapabilities(AttachCapabilitiesEvent<Entity> event) {
+        if (event.getObject() instanceof Player) {
+            event.addCapability(ID, new ShieldCapabilityProvider());
+        }
+    }
+
+    // ========== 2. 玩家实体克隆（重生、跨维度） ==========
+    @SubscribeEvent
+    public void onPlayerClone(PlayerEvent.Clone event) {
+        Player original = event.getOriginal();
+        original.reviveCaps();
+        ShieldState oldState = get(original);
+        if (oldState != null) {
+            // 新实体会沿用同一个末影箱，移除旧实体缓存的监听
+            oldState.getEnderShieldCache().detach();
+            // 取消旧实体的计时器（复制到新实体的状态会在下一次玩家tick时重新安排）
+            ShieldTimerWheel.cancelAll(oldState);
+
+            // 死亡重生时使用新实体上的全新状态（0护盾值，不带任何冷却、重构、无敌标记）
+            // 跨维度（如从末地返回）时复制旧实体的护盾状态
+            ShieldState newState = get(event.getEntity());
+            if (!event.isWasDeath() && newState != null) {
+                newState.copyFrom(oldState, event.getEntity().tickCount - original.tickCount);
+            }
+        }
+        original.invalidateCaps();
+    }
+}
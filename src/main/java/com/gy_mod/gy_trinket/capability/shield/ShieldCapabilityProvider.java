@@ -0,0 +1,38 @@
+package com.gy_mod.gy_trinket.capability.shield;
+
+import com.gy_mod.gy_trinket.shield.ShieldState;
+import net.minecraft.core.Direction;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraftforge.common.capabilities.Capability;
+import net.minecraftforge.common.capabilities.ICapabilitySerializable;
+import net.minecraftforge.common.util.LazyOptional;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * 护盾能力提供者
+ * 每个玩家实体持有一个护盾状态实例，并负责将其保存到玩家NBT中
+ */
+public class ShieldCapabilityProvider implements ICapabilitySerializable<CompoundTag> {
+    // 该玩家的护盾状态
+    private final ShieldState state = new ShieldState();
+    // 缓存的能力引用，避免每次查询都创建新对象
+    private final LazyOptional<ShieldState> optional = LazyOptional.of(() -> state);
+
+    @Override
+    public @NotNull <T> LazyOptional<T> getCapability(@NotNull Capability<T> cap, @Nullable Direction side) {
+        return ShieldCapability.SHIELD_STATE.orEmpty(cap, optional);
+    }
+
+    @Override
+    public CompoundTag serializeNBT() {
+        CompoundTag tag = new CompoundTag();
+        state.saveNBTData(tag);
+        return tag;
+    }
+
+    @Override
+    public void deserializeNBT(CompoundTag tag) {
+        state.loadNBTData(tag);
+    }
+}
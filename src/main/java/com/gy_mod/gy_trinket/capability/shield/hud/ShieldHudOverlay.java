@@ -1,7 +1,6 @@
 package com.gy_mod.gy_trinket.capability.shield.hud;
 
 import com.gy_mod.gy_trinket.gy_trinket;
-import com.mojang.blaze3d.platform.Window;
 import com.mojang.blaze3d.systems.RenderSystem;
 import net.minecraft.ChatFormatting;
 import net.minecraft.client.Minecraft;
@@ -13,7 +12,10 @@ import net.minecraft.util.Mth;
 import net.minecraft.world.phys.Vec3;
 import net.minecraftforge.api.distmarker.Dist;
 import net.minecraftforge.api.distmarker.OnlyIn;
+import net.minecraftforge.client.gui.overlay.ForgeGui;
+import net.minecraftforge.client.gui.overlay.IGuiOverlay;
 
+import com.gy_mod.gy_trinket.shield.ShieldManager;
 import com.gy_mod.gy_trinket.shield.particle.ShieldParticleGenerator;
 
 /**
@@ -21,7 +23,7 @@ import com.gy_mod.gy_trinket.shield.particle.ShieldParticleGenerator;
  * 固定位置渲染护盾条+数值，无需按键/鼠标操作
  */
 @OnlyIn(Dist.CLIENT)
-public class ShieldHudOverlay {
+public class ShieldHudOverlay implements IGuiOverlay {
     // 单例实例
     private static ShieldHudOverlay instance;
     // 护盾纹理（需自行准备182x10像素的纹理）
@@ -29,27 +31,53 @@ public class ShieldHudOverlay {
     // 护盾冷却时间纹理
     private static final ResourceLocation SHIELD_COOLDOWN_ICON = ResourceLocation.fromNamespaceAndPath(gy_trinket.MOD_ID, "textures/gui/shield_cooldown_gui.png");
 
-    // 护盾值缓存
+    // 护盾值缓存（每刻向目标值靠近）
     private float currentShield = 0;
     private float maxShield = 0;
-    // 冷却时间缓存
-    private long cooldownStartTime = 0;
+    // 冷却时间缓存（按客户端刻计时，游戏暂停时同服务端一起暂停）
+    private int cooldownElapsed = 0;
     private int cooldownDuration = 0;
     private boolean isInCooldown = false;
     // 目标值（用于平滑过渡）
     private float targetCurrentShield = 0;
     private float targetMaxShield = 0;
     // 平滑过渡参数
-    private static final float SMOOTHING_FACTOR = 0.15f; // 平滑因子，值越大过渡越快
+    private static final float SMOOTHING_FACTOR = 0.4f; // 每刻向目标值靠近的比例，值越大过渡越快
     // 伤害提升相关
     private float damageBonusPercentage = 0.0f;
     private float targetDamageBonus = 0.0f;
+    // 每刻计算一次的填充条宽度（像素），渲染时只做一次插值
+    private float shieldFillWidth = 0;
+    private float previousShieldFillWidth = 0;
+    private float cooldownFillWidth = 0;
+    private float previousCooldownFillWidth = 0;
+    // 重构推算（服务端只在重构开始和出现偏差时同步，期间由客户端每刻自行推算护盾值）
+    private boolean isPredictingRebuild = false;
+    private int rebuildInitialScaled = 0;
+    private int rebuildMaxScaled = 0;
+    private int rebuildDuration = 0;
+    private int rebuildElapsed = 0;
+    // 文本缓存（显示值或界面尺寸变化时才重新生成，避免每帧格式化字符串和测量宽度）
+    private String shieldText = null;
+    private int shieldTextX = 0;
+    private int shieldTextY = 0;
+    private int cachedShieldHundredths = 0;
+    private float cachedMaxShield = 0;
+    private int cachedShieldHudX = 0;
+    private int cachedShieldHudY = 0;
+    private String damageBonusText = null;
+    private int damageBonusTextX = 0;
+    private int damageBonusTextY = 0;
+    private int cachedDamageBonusPercent = 0;
+    private int cachedScreenWidth = 0;
+    private int cachedScreenHeight = 0;
     // HUD固定尺寸
     private static final int BAR_WIDTH = 182;
     private static final int BAR_HEIGHT = 5;
     private static final int COOLDOWN_BAR_HEIGHT = 5; // 增加冷却时间条高度为5像素，与护盾条相同高度，更明显
     private static final int TEXTURE_WIDTH = 182;
     private static final int TEXTURE_HEIGHT = 10;
+    private static final float SHIELD_TEXT_SCALE = 0.75f;
 
     // 单例模式
     public static ShieldHudOverlay getInstance() {
@@ -78,23 +106,25 @@ public class ShieldHudOverlay {
         // 处理冷却时间（仅在有冷却时间时更新）
         if (maxCooldown > 0) {
             if (currentCooldown > 0) {
-                // 如果正在冷却中，重新计算冷却开始时间和持续时间
+                // 如果正在冷却中，以服务端的已冷却刻数校正本地计时
                 this.cooldownDuration = maxCooldown;
-                this.cooldownStartTime = System.currentTimeMillis() - (currentCooldown * 50); // 1刻 = 50毫秒
+                this.cooldownElapsed = currentCooldown;
                 this.isInCooldown = true;
             } else {
                 // 冷却结束
-                this.isInCooldown = false;
-                this.cooldownStartTime = 0;
-                this.cooldownDuration = 0;
+                clearCooldown();
             }
         } else {
             // 没有冷却时间
-            this.isInCooldown = false;
-            this.cooldownStartTime = 0;
-            this.cooldownDuration = 0;
+            clearCooldown();
         }
     }
+
+    private void clearCooldown() {
+        this.isInCooldown = false;
+        this.cooldownElapsed = 0;
+        this.cooldownDuration = 0;
+    }
     
     // ========== 对外接口：获取当前护盾值 ==========
     public float getCurrentShield() {
@@ -108,59 +138,170 @@ public class ShieldHudOverlay {
     
     // ========== 对外接口：处理护盾重构状态 ==========
     public void handleShieldRebuilding(boolean isRebuilding) {
+        // 仅用于旧数据包（重构期间每刻同步）；紧凑数据包由 ShieldClientEffects 在开始重构时播放一次
         if (isRebuilding) {
             // 护盾开始重构，生成粒子效果
             ShieldParticleGenerator.generateShieldRebuildParticles();
         }
     }
 
-    // ========== 核心渲染逻辑 ==========    
-    public void render(GuiGraphics guiGraphics) {
-        Minecraft minecraft = Minecraft.getInstance();
-        // 仅在游戏内、有玩家时渲染
-        if (minecraft.player == null || minecraft.screen != null) return;
+    // ========== 对外接口：开始推算护盾重构 ==========
+    /**
+     * 根据服务端同步的重构信息开始（或校正）本地推算，推算公式与服务端 ShieldEvent 的重构逻辑一致
+     * @param initialScaled 重构开始时的护盾值（放大100倍）
+     * @param max 最大护盾值
+     * @param duration 重构持续时间（刻）
+     * @param elapsed 已重构时间（刻）
+     */
+    public void startRebuildPrediction(int initialScaled, int max, int duration, int elapsed) {
+        if (duration <= 0) {
+            stopRebuildPrediction();
+            return;
+        }
+        this.isPredictingRebuild = true;
+        this.rebuildInitialScaled = initialScaled;
+        this.rebuildMaxScaled = max * 100;
+        this.rebuildDuration = duration;
+        this.rebuildElapsed = elapsed;
+    }
+
+    // ========== 对外接口：停止推算护盾重构 ==========
+    public void stopRebuildPrediction() {
+        this.isPredictingRebuild = false;
+    }
+
+    // ========== 客户端每刻更新显示值 ==========
+    /**
+     * 每个客户端刻调用一次：推算重构进度、保存上一刻的显示值、向目标值平滑过渡并计算填充条宽度
+     * 渲染时只在上一刻和当前刻的结果之间插值，过渡速度与帧率无关
+     */
+    public void tick() {
+        tickRebuildPrediction();
+
+        previousShieldFillWidth = shieldFillWidth;
+        previousCooldownFillWidth = cooldownFillWidth;
 
-        // 平滑过渡：每帧向目标值靠近
         smoothTransition();
 
-        Window window = minecraft.getWindow();
-        int screenWidth = window.getGuiScaledWidth();
-        int screenHeight = window.getGuiScaledHeight();
+        // 冷却计时
+        if (isInCooldown) {
+            cooldownElapsed++;
+            if (cooldownElapsed > cooldownDuration) {
+                // 上一刻已经画满，冷却完成
+                clearCooldown();
+            }
+        }
+
+        updateFillWidths();
+    }
+
+    // ========== 计算填充条宽度 ==========
+    private void updateFillWidths() {
+        shieldFillWidth = maxShield > 0 ? currentShield / maxShield * BAR_WIDTH : 0;
+        cooldownFillWidth = isInCooldown && cooldownDuration > 0
+                ? Math.min(1.0f, cooldownElapsed / (float) cooldownDuration) * BAR_WIDTH
+                : 0;
+    }
+
+    // ========== 推算重构进度 ==========
+    private void tickRebuildPrediction() {
+        if (!isPredictingRebuild) {
+            return;
+        }
+        Minecraft minecraft = Minecraft.getInstance();
+        if (minecraft.player == null) {
+            return;
+        }
+
+        rebuildElapsed++;
+        // 超过重构持续时间后停止推算，等待服务端发送重构结束的更新
+        if (rebuildElapsed > rebuildDuration) {
+            isPredictingRebuild = false;
+            return;
+        }
+
+        // 与服务端一致：固定恢复速率 = 最大护盾值 / 重构持续时间
+        int regenRate = rebuildMaxScaled / rebuildDuration;
+        int predictedShield = Math.min(rebuildInitialScaled + regenRate * rebuildElapsed, rebuildMaxScaled);
+        this.targetCurrentShield = Math.max(0, Math.min(predictedShield / 100.0f, targetMaxShield));
+        // 同步更新客户端ShieldManager的护盾值，以便渲染层能够获取到推算的护盾值
+        ShieldManager.setPlayerShieldScaled(minecraft.player, predictedShield);
+    }
+
+    // ========== 核心渲染逻辑 ==========    
+    /**
+     * 渲染护盾HUD（作为Forge GUI叠加层，由原版GUI按叠加层顺序调用）
+     * @param gui Forge GUI
+     * @param guiGraphics GUI绘制上下文
+     * @param partialTick 当前帧在两个客户端刻之间的进度（0~1），用于插值填充条宽度
+     * @param screenWidth 缩放后的屏幕宽度
+     * @param screenHeight 缩放后的屏幕高度
+     */
+    @Override
+    public void render(ForgeGui gui, GuiGraphics guiGraphics, float partialTick, int screenWidth, int screenHeight) {
+        // 没有可显示的内容时直接返回，不修改任何渲染状态
+        if (!isVisible()) return;
 
         // HUD固定位置：屏幕上方中间，更明显的位置，避免被其他UI元素遮挡
         int hudX = screenWidth / 2 - BAR_WIDTH / 2;
         int hudY = 50; // 移动到屏幕上方50像素处
 
-        // 渲染准备
-        RenderSystem.enableBlend();
-        RenderSystem.defaultBlendFunc();
+        boolean drawShieldBar = maxShield > 0;
+        boolean drawCooldownBar = isCooldownVisible();
+
+        // 只在绘制纹理条时开启混合
+        if (drawShieldBar || drawCooldownBar) {
+            RenderSystem.enableBlend();
+            RenderSystem.defaultBlendFunc();
 
-        // 只有当有护盾值时才绘制护盾HUD
-        if (maxShield > 0) {
-            // 1. 绘制护盾背景条（UV: 0,0 → 182,5）
-            guiGraphics.blit(SHIELD_ICON, hudX, hudY, 0, 0, BAR_WIDTH, BAR_HEIGHT, TEXTURE_WIDTH, TEXTURE_HEIGHT);
+            // 只有当有护盾值时才绘制护盾条
+            if (drawShieldBar) {
+                // 1. 绘制护盾背景条（UV: 0,0 → 182,5）
+                guiGraphics.blit(SHIELD_ICON, hudX, hudY, 0, 0, BAR_WIDTH, BAR_HEIGHT, TEXTURE_WIDTH, TEXTURE_HEIGHT);
 
-            // 2. 绘制护盾填充条（根据当前护盾值比例）
-            if (currentShield > 0) {
-                int fillWidth = (int) (currentShield / maxShield * BAR_WIDTH);
-                guiGraphics.blit(SHIELD_ICON, hudX, hudY, 0, 5, fillWidth, BAR_HEIGHT, TEXTURE_WIDTH, TEXTURE_HEIGHT);
+                // 2. 绘制护盾填充条（在上一刻和当前刻的填充宽度之间插值）
+                int fillWidth = (int) Mth.lerp(partialTick, previousShieldFillWidth, shieldFillWidth);
+                if (fillWidth > 0) {
+                    guiGraphics.blit(SHIELD_ICON, hudX, hudY, 0, 5, fillWidth, BAR_HEIGHT, TEXTURE_WIDTH, TEXTURE_HEIGHT);
+                }
             }
 
-            // 3. 绘制护盾数值文本（居中显示）
+            // 3. 绘制护盾冷却时间条（只要在冷却时间内且护盾值不满就显示）
+            if (drawCooldownBar) {
+                drawShieldCooldown(guiGraphics, hudX, hudY, partialTick);
+            }
+
+            // 渲染清理
+            RenderSystem.disableBlend();
+        }
+
+        // 4. 绘制护盾数值文本（居中显示）
+        if (drawShieldBar) {
             drawShieldText(guiGraphics, hudX, hudY);
         }
 
-        // 4. 绘制护盾冷却时间条（无论是否有护盾值，只要在冷却时间内就显示）
-        drawShieldCooldown(guiGraphics, hudX, hudY);
-        
         // 5. 绘制伤害提升文本
-        drawDamageBonusText(guiGraphics);
+        drawDamageBonusText(guiGraphics, screenWidth, screenHeight);
+    }
+
+    /**
+     * 当前是否有需要显示的内容
+     * 没有玩家、打开了界面、按F1隐藏了GUI、旁观模式，或护盾条、冷却条和伤害提升都不需要显示时返回false
+     */
+    private boolean isVisible() {
+        Minecraft minecraft = Minecraft.getInstance();
+        if (minecraft.player == null || minecraft.screen != null || minecraft.options.hideGui || minecraft.player.isSpectator()) {
+            return false;
+        }
+        return maxShield > 0 || isCooldownVisible() || damageBonusPercentage > 0.01f;
+    }
 
-        // 渲染清理
-        RenderSystem.disableBlend();
+    // 当有冷却时间且护盾值不满时才显示冷却条
+    private boolean isCooldownVisible() {
+        return isInCooldown && cooldownDuration > 0 && currentShield < maxShield;
     }
     
-    // ========== 平滑过渡逻辑 ==========
+    // ========== 平滑过渡逻辑（每刻一次） ==========
     private void smoothTransition() {
         // 平滑过渡护盾值
         if (Math.abs(currentShield - targetCurrentShield) > 0.01f) {
@@ -184,18 +325,27 @@ public class ShieldHudOverlay {
     // ========== 绘制护盾数值文本 ==========
     private void drawShieldText(GuiGraphics guiGraphics, int x, int y) {
         Minecraft mc = Minecraft.getInstance();
-        String shieldText = String.format("%.2f/%.0f", currentShield, maxShield);
-        float scale = 0.75f;
+        float scale = SHIELD_TEXT_SCALE;
+
+        // 显示值（保留两位小数）或HUD位置变化时才重新格式化、测量宽度和计算位置
+        int shieldHundredths = Math.round(currentShield * 100);
+        if (shieldText == null || shieldHundredths != cachedShieldHundredths || maxShield != cachedMaxShield
+                || x != cachedShieldHudX || y != cachedShieldHudY) {
+            cachedShieldHundredths = shieldHundredths;
+            cachedMaxShield = maxShield;
+            cachedShieldHudX = x;
+            cachedShieldHudY = y;
+            shieldText = String.format("%.2f/%.0f", shieldHundredths / 100.0f, maxShield);
+            // 文本缩放+居中
+            shieldTextX = (int) ((x + BAR_WIDTH/2f - mc.font.width(shieldText) * scale / 2f) / scale);
+            shieldTextY = (int) ((y + BAR_HEIGHT + 2f) / scale);
+        }
 
-        // 文本缩放+居中
         guiGraphics.pose().pushPose();
         guiGraphics.pose().scale(scale, scale, 1.0f);
 
-        int textX = (int) ((x + BAR_WIDTH/2f - mc.font.width(shieldText) * scale / 2f) / scale);
-        int textY = (int) ((y + BAR_HEIGHT + 2f) / scale);
-
         // 蓝色文本（带阴影）
-        guiGraphics.drawString(mc.font, shieldText, textX, textY, ChatFormatting.BLUE.getColor(), true);
+        guiGraphics.drawString(mc.font, shieldText, shieldTextX, shieldTextY, ChatFormatting.BLUE.getColor(), true);
 
         guiGraphics.pose().popPose();
     }
@@ -203,57 +353,51 @@ public class ShieldHudOverlay {
     /**
      * 绘制伤害提升文本
      * @param guiGraphics GUI绘制上下文
+     * @param screenWidth 缩放后的屏幕宽度
+     * @param screenHeight 缩放后的屏幕高度
      */
-    private void drawDamageBonusText(GuiGraphics guiGraphics) {
+    private void drawDamageBonusText(GuiGraphics guiGraphics, int screenWidth, int screenHeight) {
         // 如果伤害提升大于0，才绘制文本
         if (damageBonusPercentage > 0.01f) {
             Minecraft mc = Minecraft.getInstance();
-            Window window = mc.getWindow();
-            int screenWidth = window.getGuiScaledWidth();
-            int screenHeight = window.getGuiScaledHeight();
-            
-            // 计算饥饿值HUD的位置（在屏幕底部中心偏左）
-            int foodBarX = screenWidth / 2 - 91;
-            int foodBarY = screenHeight - 39;
-            
-            // 在饥饿值上方绘制伤害提升文本
-            int textX = foodBarX;
-            int textY = foodBarY - 15;
-            
-            // 格式化伤害提升文本，显示为百分比
-            String damageBonusText = String.format("伤害提升: +%.0f%%", damageBonusPercentage * 100);
-            
+
+            // 显示的百分比或界面尺寸变化时才重新格式化和计算位置
+            int percent = Math.round(damageBonusPercentage * 100);
+            if (damageBonusText == null || percent != cachedDamageBonusPercent
+                    || screenWidth != cachedScreenWidth || screenHeight != cachedScreenHeight) {
+                cachedDamageBonusPercent = percent;
+                cachedScreenWidth = screenWidth;
+                cachedScreenHeight = screenHeight;
+
+                // 计算饥饿值HUD的位置（在屏幕底部中心偏左）
+                int foodBarX = screenWidth / 2 - 91;
+                int foodBarY = screenHeight - 39;
+
+                // 在饥饿值上方绘制伤害提升文本
+                damageBonusTextX = foodBarX;
+                damageBonusTextY = foodBarY - 15;
+
+                // 格式化伤害提升文本，显示为百分比
+                damageBonusText = "伤害提升: +" + percent + "%";
+            }
+
             // 绘制文本（绿色表示增益效果）
-            guiGraphics.drawString(mc.font, damageBonusText, textX, textY, ChatFormatting.GREEN.getColor(), true);
+            guiGraphics.drawString(mc.font, damageBonusText, damageBonusTextX, damageBonusTextY, ChatFormatting.GREEN.getColor(), true);
         }
     }
 
     // ========== 绘制护盾冷却时间条 ==========
-    private void drawShieldCooldown(GuiGraphics guiGraphics, int x, int y) {
-        // 当有冷却时间且护盾值不满时才绘制冷却条
-        if (isInCooldown && cooldownDuration > 0 && currentShield < maxShield) {
-            // 冷却时间HUD位置：调整位置，确保在护盾HUD下方且可见，增加间距到5像素
-            int cooldownY = y + BAR_HEIGHT + 5;
-
-            // 绘制冷却时间背景条
-            guiGraphics.blit(SHIELD_COOLDOWN_ICON, x, cooldownY, 0, 0, BAR_WIDTH, COOLDOWN_BAR_HEIGHT, TEXTURE_WIDTH, TEXTURE_HEIGHT);
-
-            // 计算当前冷却进度
-            long elapsedTime = System.currentTimeMillis() - cooldownStartTime;
-            float progress = Math.min(1.0f, elapsedTime / (float) (cooldownDuration * 50)); // 1刻 = 50毫秒
-            
-            // 绘制冷却时间填充条（根据当前冷却进度比例）
-            int fillWidth = (int) (progress * BAR_WIDTH);
-            if (fillWidth > 0) {
-                guiGraphics.blit(SHIELD_COOLDOWN_ICON, x, cooldownY, 0, COOLDOWN_BAR_HEIGHT, fillWidth, COOLDOWN_BAR_HEIGHT, TEXTURE_WIDTH, TEXTURE_HEIGHT);
-            }
-            
-            // 如果冷却完成，更新状态
-            if (progress >= 1.0f) {
-                isInCooldown = false;
-                cooldownStartTime = 0;
-                cooldownDuration = 0;
-            }
+    private void drawShieldCooldown(GuiGraphics guiGraphics, int x, int y, float partialTick) {
+        // 冷却时间HUD位置：调整位置，确保在护盾HUD下方且可见，增加间距到5像素
+        int cooldownY = y + BAR_HEIGHT + 5;
+
+        // 绘制冷却时间背景条
+        guiGraphics.blit(SHIELD_COOLDOWN_ICON, x, cooldownY, 0, 0, BAR_WIDTH, COOLDOWN_BAR_HEIGHT, TEXTURE_WIDTH, TEXTURE_HEIGHT);
+
+        // 绘制冷却时间填充条（在上一刻和当前刻的冷却进度之间插值，冷却完成由 tick() 处理）
+        int fillWidth = (int) Mth.lerp(partialTick, previousCooldownFillWidth, cooldownFillWidth);
+        if (fillWidth > 0) {
+            guiGraphics.blit(SHIELD_COOLDOWN_ICON, x, cooldownY, 0, COOLDOWN_BAR_HEIGHT, fillWidth, COOLDOWN_BAR_HEIGHT, TEXTURE_WIDTH, TEXTURE_HEIGHT);
         }
     }
 
@@ -263,12 +407,17 @@ public class ShieldHudOverlay {
     public void reset() {
         this.currentShield = 0;
         this.maxShield = 0;
-        this.cooldownStartTime = 0;
-        this.cooldownDuration = 0;
-        this.isInCooldown = false;
+        clearCooldown();
+        this.shieldFillWidth = 0;
+        this.previousShieldFillWidth = 0;
+        this.cooldownFillWidth = 0;
+        this.previousCooldownFillWidth = 0;
         this.targetCurrentShield = 0;
         this.targetMaxShield = 0;
         this.damageBonusPercentage = 0.0f;
         this.targetDamageBonus = 0.0f;
+        this.isPredictingRebuild = false;
+        this.shieldText = null;
+        this.damageBonusText = null;
     }
 }
\ No newline at end of file
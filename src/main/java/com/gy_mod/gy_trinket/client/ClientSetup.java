@@ -2,10 +2,13 @@ package com.gy_mod.gy_trinket.client;
 
 import com.gy_mod.gy_trinket.capability.shield.hud.ShieldHudOverlay;
 import com.gy_mod.gy_trinket.gy_trinket;
+import com.gy_mod.gy_trinket.network.ShieldSyncPacket;
 
 import net.minecraft.client.Minecraft;
 import net.minecraftforge.api.distmarker.Dist;
-import net.minecraftforge.client.event.RenderGuiEvent;
+import net.minecraftforge.client.event.ClientPlayerNetworkEvent;
+import net.minecraftforge.client.event.RegisterGuiOverlaysEvent;
+import net.minecraftforge.client.gui.overlay.VanillaGuiOverlay;
 import net.minecraftforge.event.TickEvent;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
 import net.minecraftforge.fml.common.Mod;
@@ -28,13 +31,45 @@ public class ClientSetup {
     }
 
     /**
-     * 渲染护盾HUD事件处理方法
-     * 在GUI渲染后调用，负责绘制护盾HUD
-     * @param event GUI渲染事件
+     * 注册护盾HUD叠加层
+     * 作为Forge GUI叠加层注册在Boss血条之上，参与原版GUI的渲染顺序（F1隐藏GUI等判断在叠加层内处理）
+     * @param event GUI叠加层注册事件
+     */
+    public static void registerGuiOverlays(RegisterGuiOverlaysEvent event) {
+        event.registerAbove(VanillaGuiOverlay.BOSS_EVENT_PROGRESS.id(), "shield_hud", ShieldHudOverlay.getInstance());
+    }
+
+    /**
+     * 客户端退出世界事件处理方法
+     * 重置护盾同步状态和效果状态机，重新进入世界时服务端会发送完整状态
+     * @param event 客户端退出事件
+     */
+    @SubscribeEvent
+    public static void onClientLogout(ClientPlayerNetworkEvent.LoggingOut event) {
+        ShieldSyncPacket.resetClientState();
+    }
+
+    /**
+     * 客户端玩家重生事件处理方法（死亡重生和切换维度时都会创建新的本地玩家）
+     * 服务端随后会重新发送完整状态，重置护盾同步状态和效果状态机
+     * @param event 客户端玩家克隆事件
+     */
+    @SubscribeEvent
+    public static void onClientRespawn(ClientPlayerNetworkEvent.Clone event) {
+        ShieldSyncPacket.resetClientState();
+    }
+
+    /**
+     * 客户端tick事件处理方法
+     * 在每个客户端tick结束时更新护盾HUD的显示值并推算护盾重构进度（游戏暂停时服务端同样暂停，不更新）
+     * @param event 客户端tick事件
      */
     @SubscribeEvent
-    public static void onRenderGui(RenderGuiEvent.Post event) {
-        ShieldHudOverlay.getInstance().render(event.getGuiGraphics());
+    public static void onClientTick(TickEvent.ClientTickEvent event) {
+        if (event.phase != TickEvent.Phase.END || Minecraft.getInstance().isPaused()) {
+            return;
+        }
+        ShieldHudOverlay.getInstance().tick();
     }
 
 
@@ -47,5 +82,6 @@ public class ClientSetup {
      */
     public static void register() {
         FMLJavaModLoadingContext.get().getModEventBus().addListener(ClientSetup::init);
+        FMLJavaModLoadingContext.get().getModEventBus().addListener(ClientSetup::registerGuiOverlays);
     }
 }
\ No newline at end of file
@@ -6,23 +6,19 @@ import org.apache.logging.log4j.Logger;
 import com.gy_mod.gy_trinket.Config;
 import com.gy_mod.gy_trinket.item.AmplifierShield;
 import com.gy_mod.gy_trinket.item.ShieldItemGy;
+import com.gy_mod.gy_trinket.capability.shield.ShieldCapability;
+import com.gy_mod.gy_trinket.shield.AmplifierState;
 import com.gy_mod.gy_trinket.shield.ShieldManager;
+import com.gy_mod.gy_trinket.shield.ShieldState;
 import net.minecraft.world.entity.ai.attributes.AttributeInstance;
 import net.minecraft.network.chat.Component;
 import net.minecraft.world.entity.ai.attributes.AttributeModifier;
 import net.minecraft.world.entity.ai.attributes.Attributes;
 import net.minecraft.world.entity.player.Player;
 import net.minecraftforge.common.MinecraftForge;
-import net.minecraftforge.event.TickEvent;
-import net.minecraftforge.event.entity.living.LivingDamageEvent;
 import net.minecraftforge.event.entity.player.PlayerEvent;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Iterator;
-import java.util.List;
-import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -33,81 +29,8 @@ public class AmplifierShieldEvent {
     // 日志记录器
     private static final Logger LOGGER = LogManager.getLogger(AmplifierShieldEvent.class);
     
-    // 存储玩家损失的护盾值：UUID -> 损失的护盾值
-    private static final Map<UUID, Float> AMPLIFIER_DAMAGE_STORAGE = new HashMap<>();
-    
-    // 记录消耗的护盾值的Map：UUID -> 消耗的护盾值
-    private static final Map<UUID, Float> AMPLIFIER_SHIELD_CONSUMPTION = new HashMap<>();
-    
-    // 存储玩家的所有伤害加成：UUID -> List<DamageBonus>
-    private static final Map<UUID, List<DamageBonus>> AMPLIFIER_DAMAGE_BONUSES = new HashMap<>();
-    
-    // 伤害加成持续时间（3秒 = 60tick）
-    private static final int BONUS_DURATION_TICKS = 60;
-    
-    // 修饰符开放期（1秒 = 20tick）
-    private static final int BONUS_OPEN_TICKS = 20;
-    
-    // 最大修饰符数量
-    private static final int MAX_BONUSES = 5;
-    
-    /**
-     * 伤害加成数据类
-     */
-    private static class DamageBonus {
-        private final UUID uuid;
-        private double amount;
-        private int remainingTicks;
-        private int remainingOpenTicks;
-        private boolean isApplied;
-        
-        public DamageBonus(double amount) {
-            this.uuid = UUID.randomUUID();
-            this.amount = amount;
-            this.remainingTicks = BONUS_DURATION_TICKS;
-            this.remainingOpenTicks = BONUS_OPEN_TICKS;
-            this.isApplied = false;
-        }
-        
-        public UUID getUuid() {
-            return uuid;
-        }
-        
-        public double getAmount() {
-            return amount;
-        }
-        
-        public void addAmount(double additionalAmount) {
-            this.amount += additionalAmount;
-        }
-        
-        public int getRemainingTicks() {
-            return remainingTicks;
-        }
-        
-        public int getRemainingOpenTicks() {
-            return remainingOpenTicks;
-        }
-        
-        public boolean isOpen() {
-            return remainingOpenTicks > 0;
-        }
-        
-        public boolean isApplied() {
-            return isApplied;
-        }
-        
-        public void setApplied(boolean applied) {
-            isApplied = applied;
-        }
-        
-        public void decrementTicks() {
-            remainingTicks--;
-            if (isOpen()) {
-                remainingOpenTicks--;
-            }
-        }
-    }
+    // 伤害加成修饰符的固定UUID（所有伤害加成合并为一个修饰符）
+    private static final UUID DAMAGE_BONUS_MODIFIER_UUID = UUID.fromString("6f1b9c2e-4d3a-4e8b-9a57-2c8e1f0d7b34");
 
     /**
      * 注册事件
@@ -122,42 +45,17 @@ public class AmplifierShieldEvent {
      */
     @SubscribeEvent
     public void onPlayerQuit(PlayerEvent.PlayerLoggedOutEvent event) {
-        // 在PlayerLoggedOutEvent中，玩家对象可以通过getEntity()方法获取
-        Player player = (Player) event.getEntity();
-        UUID playerId = player.getUUID();
-        
-        // 清除玩家的所有伤害加成
-        removeAllDamageBonuses(player);
-        
-        // 清除玩家的伤害存储
-        AMPLIFIER_DAMAGE_STORAGE.remove(playerId);
-        
-        // 清除玩家的护盾消耗记录
-        AMPLIFIER_SHIELD_CONSUMPTION.remove(playerId);
-        
-
+        // 清除玩家的所有伤害加成和记录的损失护盾值
+        removeAllDamageBonuses(event.getEntity());
     }
     
     /**
-     * 监听玩家登录事件，清除可能残留的伤害加成
-     * 解决玩家强制退出游戏后修饰符残留的问题
+     * 监听玩家重生事件，移除可能从旧实体复制过来的伤害加成修饰符
+     * 增幅护盾状态不随重生复制，修饰符也不应保留
      */
     @SubscribeEvent
-    public void onPlayerLogin(PlayerEvent.PlayerLoggedInEvent event) {
-        // 在PlayerLoggedInEvent中，玩家对象可以通过getEntity()方法获取
-        Player player = (Player) event.getEntity();
-        UUID playerId = player.getUUID();
-        
-        // 清除玩家的所有伤害加成（防止强制退出后残留）
-        removeAllDamageBonuses(player);
-        
-        // 清除玩家的伤害存储
-        AMPLIFIER_DAMAGE_STORAGE.remove(playerId);
-        
-        // 清除玩家的护盾消耗记录
-        AMPLIFIER_SHIELD_CONSUMPTION.remove(playerId);
-        
-
+    public void onPlayerRespawn(PlayerEvent.PlayerRespawnEvent event) {
+        removeDamageBonusModifier(event.getEntity());
     }
 
     /**
@@ -187,62 +85,53 @@ public class AmplifierShieldEvent {
     }
 
     /**
- * 监听玩家Tick事件，处理增幅护盾的持续效果
- */
-    @SubscribeEvent
-    public void onPlayerTick(TickEvent.PlayerTickEvent event) {
-        // 检查是否是服务器端和结束阶段
-        if (event.player.level().isClientSide() || event.phase != TickEvent.Phase.END) {
+     * 增幅护盾的每tick持续效果（由增幅护盾的 ShieldEffect.tickEffect 在服务端调用，激活的护盾已确定是增幅护盾）
+     * @param activeShield 激活的增幅护盾
+     * @param player 玩家对象
+     * @param currentShield 当前护盾值
+     * @param maxShield 最大护盾值
+     */
+    public static void tickAmplifier(ShieldItemGy activeShield, Player player, float currentShield, float maxShield) {
+        ShieldState state = ShieldCapability.get(player);
+        if (state == null) {
             return;
         }
-
-        // 获取玩家
-        Player player = event.player;
-        UUID playerId = player.getUUID();
+        AmplifierState amplifier = state.getAmplifierState();
 
         // 处理现有伤害加成的计时
-        handleDamageBonusesTiming(player);
-
-        // 检查玩家当前激活的护盾是否是增幅护盾
-        ShieldItemGy activeShield = ShieldManager.getActiveShieldItem(player);
-        if (!(activeShield instanceof AmplifierShield)) {
-            // 如果玩家不再使用增幅护盾，清除所有相关效果
-            removeAllDamageBonuses(player);
-            AMPLIFIER_DAMAGE_STORAGE.remove(playerId);
-            return;
-        }
+        handleDamageBonusesTiming(player, amplifier);
 
         // 检查当前护盾值是否大于0
-        float currentShield = ShieldManager.getPlayerShield(player);
         if (currentShield <= 0) {
             // 护盾值为0，移除所有伤害加成
             removeAllDamageBonuses(player);
             return;
         }
 
-        // 获取增幅护盾配置
-        Config.ShieldConfig amplifierConfig = Config.SHIELD_CONFIGS.get("gy_trinket:shield_amplifier");
+        // 获取增幅护盾配置（护盾物品绑定的配置快照）
+        Config.ShieldConfig amplifierConfig = activeShield.getShieldConfig();
         
         // 处理记录的伤害值，创建或更新伤害加成
-        float storedDamage = AMPLIFIER_DAMAGE_STORAGE.getOrDefault(playerId, 0.0F);
+        float storedDamage = amplifier.getStoredDamage();
         if (storedDamage > 0) {
             // 计算伤害加成：每点存储值增加配置的伤害加成
             double damageBonusPercent = storedDamage * amplifierConfig.amplifierDamageBonusPerShield;
             
-            // 创建或更新伤害加成
-            createOrUpdateDamageBonus(player, damageBonusPercent);
+            // 创建或更新伤害加成（存在开放期的伤害加成时累加，已经达到最大数量时忽略新的伤害提升）
+            amplifier.addBonus(damageBonusPercent / 100.0);
             
             // 清除记录的损失护盾值
-            AMPLIFIER_DAMAGE_STORAGE.put(playerId, 0.0F);
+            amplifier.clearStoredDamage();
         }
         
         // 按照配置的频率更新修饰符应用状态
         if (player.tickCount % amplifierConfig.amplifierDamageBonusFrequency == 0) {
-            applyDamageBonuses(player);
+            // 应用所有开放期结束的伤害加成
+            amplifier.applyClosedBonuses();
+            updateDamageBonusModifier(player, amplifier);
             
             // 消耗最大护盾值的配置百分比（只要激活了增幅护盾且护盾值大于零）
             if (currentShield > 0) {
-                float maxShield = ShieldManager.getMaxShield(player);
                 float shieldCost = maxShield * (float)(amplifierConfig.amplifierDamageBonusShieldCost / 100.0);
                 
                 // 记录持续消耗的护盾值
@@ -258,102 +147,42 @@ public class AmplifierShieldEvent {
                 }
 
                 // 记录消耗的护盾值
-                float totalConsumption = AMPLIFIER_SHIELD_CONSUMPTION.getOrDefault(playerId, 0.0F) + shieldCost;
-                AMPLIFIER_SHIELD_CONSUMPTION.put(playerId, totalConsumption);
+                amplifier.addShieldConsumption(shieldCost);
 
             }
         }
     }
     
     /**
-     * 处理现有伤害加成的计时
+     * 卸下增幅护盾时（由增幅护盾的 ShieldEffect.onUnequip 调用），清除所有相关效果
+     * @param player 玩家对象
      */
-    private void handleDamageBonusesTiming(Player player) {
-        UUID playerId = player.getUUID();
-        List<DamageBonus> bonuses = AMPLIFIER_DAMAGE_BONUSES.getOrDefault(playerId, new ArrayList<>());
-        
-        if (bonuses.isEmpty()) {
-            return;
-        }
-        
-        AttributeInstance attackDamage = player.getAttribute(Attributes.ATTACK_DAMAGE);
-        if (attackDamage == null) {
-            return;
-        }
-        
-        // 使用迭代器安全地移除过期的伤害加成
-        Iterator<DamageBonus> iterator = bonuses.iterator();
-        while (iterator.hasNext()) {
-            DamageBonus bonus = iterator.next();
-            bonus.decrementTicks();
-            
-            if (bonus.getRemainingTicks() <= 0) {
-                // 移除过期的伤害加成
-                if (bonus.isApplied()) {
-                    attackDamage.removeModifier(bonus.getUuid());
-                }
-                iterator.remove();
-            }
-        }
-        
-        // 更新或移除空列表
-        if (bonuses.isEmpty()) {
-            AMPLIFIER_DAMAGE_BONUSES.remove(playerId);
-        } else {
-            AMPLIFIER_DAMAGE_BONUSES.put(playerId, bonuses);
-        }
+    public static void onAmplifierUnequip(Player player) {
+        removeAllDamageBonuses(player);
     }
     
     /**
-     * 创建或更新伤害加成
-     * @param player 玩家对象
-     * @param bonusPercent 伤害加成百分比
+     * 处理现有伤害加成的计时
      */
-    private void createOrUpdateDamageBonus(Player player, double bonusPercent) {
-        // 获取玩家UUID
-        UUID playerId = player.getUUID();
-        
-        // 获取玩家的伤害加成列表
-        List<DamageBonus> bonuses = AMPLIFIER_DAMAGE_BONUSES.getOrDefault(playerId, new ArrayList<>());
-        
-        // 查找是否存在开放期内的修饰符
-        DamageBonus openBonus = null;
-        for (DamageBonus bonus : bonuses) {
-            if (bonus.isOpen()) {
-                openBonus = bonus;
-                break;
-            }
-        }
-        
-        if (openBonus != null) {
-            // 存在开放期的修饰符，累加伤害提升数值
-            double additionalAmount = bonusPercent / 100.0;
-            openBonus.addAmount(additionalAmount);
-        } else {
-            // 不存在开放期的修饰符，检查是否可以创建新的
-            if (bonuses.size() < MAX_BONUSES) {
-                // 创建新的伤害加成
-                double bonusAmount = bonusPercent / 100.0;
-                DamageBonus newBonus = new DamageBonus(bonusAmount);
-                bonuses.add(newBonus);
-            } else {
-                // 已经达到最大修饰符数量，忽略新的伤害提升
-            }
+    private static void handleDamageBonusesTiming(Player player, AmplifierState amplifier) {
+        if (!amplifier.hasBonuses()) {
+            return;
         }
         
-        // 更新伤害加成列表
-        AMPLIFIER_DAMAGE_BONUSES.put(playerId, bonuses);
+        // 移除过期的伤害加成，合并后的数值变化时更新修饰符
+        amplifier.tickBonuses();
+        updateDamageBonusModifier(player, amplifier);
     }
     
     /**
-     * 应用所有开放期结束的伤害加成
+     * 合并后的伤害加成数值变化时，更新攻击力上的伤害加成修饰符
+     * 修饰符为临时修饰符，不会保存到玩家数据中
      * @param player 玩家对象
+     * @param amplifier 玩家的增幅护盾状态
      */
-    private void applyDamageBonuses(Player player) {
-        UUID playerId = player.getUUID();
-        List<DamageBonus> bonuses = AMPLIFIER_DAMAGE_BONUSES.getOrDefault(playerId, new ArrayList<>());
-        
-        if (bonuses.isEmpty()) {
+    private static void updateDamageBonusModifier(Player player, AmplifierState amplifier) {
+        double amount = amplifier.getCombinedAmount();
+        if (amount == amplifier.getModifierAmount()) {
             return;
         }
         
@@ -363,106 +192,58 @@ public class AmplifierShieldEvent {
             return;
         }
         
-        // 应用所有开放期结束且未应用的伤害加成
-        for (DamageBonus bonus : bonuses) {
-            if (!bonus.isOpen() && !bonus.isApplied()) {
-                // 创建并添加新的修饰符
-                AttributeModifier modifier = new AttributeModifier(
-                    bonus.getUuid(),
-                    "Amplifier Shield Damage Bonus",
-                    bonus.getAmount(),
-                    AttributeModifier.Operation.MULTIPLY_TOTAL
-                );
-                
-                attackDamage.addPermanentModifier(modifier);
-                bonus.setApplied(true);
-            }
+        attackDamage.removeModifier(DAMAGE_BONUS_MODIFIER_UUID);
+        if (amount != 0.0) {
+            attackDamage.addTransientModifier(new AttributeModifier(
+                DAMAGE_BONUS_MODIFIER_UUID,
+                "Amplifier Shield Damage Bonus",
+                amount,
+                AttributeModifier.Operation.MULTIPLY_TOTAL
+            ));
         }
+        amplifier.setModifierAmount(amount);
     }
     
-
-    
     /**
      * 移除玩家的所有伤害加成
      * @param player 玩家对象
      */
-    private void removeAllDamageBonuses(Player player) {
-        UUID playerId = player.getUUID();
-        List<DamageBonus> bonuses = AMPLIFIER_DAMAGE_BONUSES.remove(playerId);
-        
-        if (bonuses == null || bonuses.isEmpty()) {
+    private static void removeAllDamageBonuses(Player player) {
+        ShieldState state = ShieldCapability.get(player);
+        AmplifierState amplifier = state == null ? null : state.peekAmplifierState();
+        if (amplifier == null) {
             return;
         }
+        amplifier.clearBonuses();
         
-        // 获取玩家的攻击力属性
-        AttributeInstance attackDamage = player.getAttribute(Attributes.ATTACK_DAMAGE);
-        if (attackDamage == null) return;
-        
-        // 移除所有伤害加成
-        for (DamageBonus bonus : bonuses) {
-            attackDamage.removeModifier(bonus.getUuid());
-        }
-    }
-
-    /**
-     * 监听LivingDamageEvent事件，处理增幅护盾的伤害处理效果
-     */
-    @SubscribeEvent
-    public void onLivingDamage(LivingDamageEvent event) {
-        // 检查是否是服务器端
-        if (event.getEntity().level().isClientSide()) {
-            return;
-        }
-
-        // 检查伤害实体是否是玩家
-        if (!(event.getEntity() instanceof Player player)) {
-            return;
-        }
-
-        // 检查玩家当前激活的护盾是否是增幅护盾
-        ShieldItemGy activeShield = ShieldManager.getActiveShieldItem(player);
-        if (!(activeShield instanceof AmplifierShield)) {
+        // 没有添加修饰符时不需要访问攻击力属性
+        if (amplifier.getModifierAmount() == 0.0) {
             return;
         }
+        amplifier.setModifierAmount(0.0);
+        removeDamageBonusModifier(player);
     }
     
     /**
-     * 计算玩家当前的总伤害提升百分比
+     * 从攻击力属性上移除伤害加成修饰符（不存在时不做任何事）
      * @param player 玩家对象
-     * @return 总伤害提升百分比（例如：0.25 表示 25%）
      */
-    public static float getTotalDamageBonus(Player player) {
-        UUID playerId = player.getUUID();
-        List<DamageBonus> bonuses = AMPLIFIER_DAMAGE_BONUSES.getOrDefault(playerId, new ArrayList<>());
-        
-        float totalBonus = 0.0F;
-        for (DamageBonus bonus : bonuses) {
-            if (bonus.isApplied()) {
-                totalBonus += bonus.getAmount();
-            }
+    private static void removeDamageBonusModifier(Player player) {
+        AttributeInstance attackDamage = player.getAttribute(Attributes.ATTACK_DAMAGE);
+        if (attackDamage != null) {
+            attackDamage.removeModifier(DAMAGE_BONUS_MODIFIER_UUID);
         }
-        
-        return totalBonus;
     }
-    
+
     /**
-     * 计算玩家当前所有正在应用的伤害提升百分比
+     * 计算玩家当前的总伤害提升百分比（已应用的伤害加成之和，直接读取 AmplifierState 的缓存值，用于HUD显示）
      * @param player 玩家对象
-     * @return 总伤害提升百分比（包括增幅护盾、药水效果、装备等所有来源）
+     * @return 总伤害提升百分比（例如：0.25 表示 25%）
      */
-    public static float getAllDamageModifiers(Player player) {
-        float totalBonus = 0.0F;
-        
-        // 获取玩家的攻击力属性
-        AttributeInstance attackDamage = player.getAttribute(Attributes.ATTACK_DAMAGE);
-        if (attackDamage != null) {
-            // 遍历所有修饰符
-            for (AttributeModifier modifier : attackDamage.getModifiers(AttributeModifier.Operation.MULTIPLY_TOTAL)) {
-                totalBonus += modifier.getAmount();
-            }
-        }
-        
-        return totalBonus;
+    public static float getTotalDamageBonus(Player player) {
+        ShieldState state = ShieldCapability.get(player);
+        AmplifierState amplifier = state == null ? null : state.peekAmplifierState();
+        return amplifier == null ? 0.0F : (float) amplifier.getAppliedSum();
     }
     
     /**
@@ -471,16 +252,11 @@ public class AmplifierShieldEvent {
      * @param damage 损失的护盾值
      */
     public static void recordShieldDamage(Player player, float damage) {
-        UUID playerId = player.getUUID();
-        
-        // 检查当前护盾值是否大于0
-        float currentShield = ShieldManager.getPlayerShield(player);
-        if (currentShield > 0) {
+        // 检查当前护盾值是否大于0，护盾值为零或以下时跳过伤害记录
+        ShieldState state = ShieldCapability.get(player);
+        if (state != null && state.getShield() > 0) {
             // 记录损失的护盾值（加算）
-            float storedDamage = AMPLIFIER_DAMAGE_STORAGE.getOrDefault(playerId, 0.0F) + damage;
-            AMPLIFIER_DAMAGE_STORAGE.put(playerId, storedDamage);
-        } else {
-            // 当前护盾值为零或以下，跳过伤害记录
+            state.getAmplifierState().addStoredDamage(damage);
         }
     }
 }
@@ -4,8 +4,15 @@ import com.gy_mod.gy_trinket.Config;
 import com.gy_mod.gy_trinket.Config.ShieldConfig;
 import com.gy_mod.gy_trinket.item.FireRingShield;
 import com.gy_mod.gy_trinket.item.ShieldItemGy;
+import com.gy_mod.gy_trinket.capability.shield.ShieldCapability;
+import com.gy_mod.gy_trinket.shield.FireRingExemptionBuffer;
+import com.gy_mod.gy_trinket.shield.FireRingScheduler;
+import com.gy_mod.gy_trinket.shield.FireRingTargetIndex;
 import com.gy_mod.gy_trinket.shield.ShieldManager;
+import com.gy_mod.gy_trinket.shield.ShieldState;
 import com.gy_mod.gy_trinket.shield.particle.ShieldParticleGenerator;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import net.minecraft.server.level.ServerLevel;
 import net.minecraft.world.damagesource.DamageSource;
 
 import net.minecraft.world.entity.Entity;
@@ -14,12 +21,10 @@ import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.phys.AABB;
 import net.minecraftforge.common.MinecraftForge;
-import net.minecraftforge.event.TickEvent;
 import net.minecraftforge.event.entity.living.LivingAttackEvent;
+import net.minecraftforge.event.level.LevelEvent;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
 
-import java.util.HashMap;
-import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
@@ -32,9 +37,6 @@ import java.util.UUID;
  */
 public class FireRingShieldEvent {
     
-    // 存储玩家最近伤害的实体映射 <玩家UUID, <实体UUID, 伤害时间戳>>
-    private static final Map<UUID, Map<UUID, Long>> recentlyHurtEntities = new HashMap<>();
-    
     // 使用配置文件中的冷却时间（刻）
     /**
      * 注册事件
@@ -45,174 +47,167 @@ public class FireRingShieldEvent {
     }
     
     /**
-     * 监听实体攻击事件，记录玩家最近攻击的实体
+     * 监听实体攻击事件，记录装备火环护盾的玩家最近攻击的实体
      * LivingAttackEvent在伤害结算前触发，比LivingHurtEvent更快
      */
     @SubscribeEvent
     public void onLivingAttack(LivingAttackEvent event) {
-        LivingEntity target = event.getEntity();
-        DamageSource source = event.getSource();
-        
-        // 检查伤害来源是否是玩家
-        if (source.getEntity() instanceof Player player) {
-            // 保存被攻击实体到映射中，有效期500毫秒
-            UUID playerUUID = player.getUUID();
-            UUID targetUUID = target.getUUID();
-            long currentTime = System.currentTimeMillis();
-            
-            recentlyHurtEntities.computeIfAbsent(playerUUID, k -> new HashMap<>())
-                              .put(targetUUID, currentTime);
+        // 检查伤害来源是否是服务端的玩家
+        if (!(event.getSource().getEntity() instanceof Player player) || player.level().isClientSide()) {
+            return;
+        }
+
+        // 只记录当前装备火环护盾的玩家
+        ShieldState state = ShieldCapability.get(player);
+        if (state == null || !(state.getEquippedShield() instanceof FireRingShield)) {
+            return;
         }
+
+        // 按服务器刻记录被攻击实体（服务器卡顿时豁免时间仍按刻计算）
+        state.getFireRingExemptions().record(event.getEntity().getId(), player.getServer().getTickCount());
     }
     
     /**
-     * 检查实体是否在玩家的最近伤害列表中（500毫秒内）
+     * 监听维度卸载事件，移除该维度的火环目标索引
      */
-    private boolean isEntityRecentlyHurtByPlayer(Player player, LivingEntity target) {
-        UUID playerUUID = player.getUUID();
-        UUID targetUUID = target.getUUID();
-        
-        if (recentlyHurtEntities.containsKey(playerUUID)) {
-            Map<UUID, Long> playerHurtEntities = recentlyHurtEntities.get(playerUUID);
-            if (playerHurtEntities.containsKey(targetUUID)) {
-                long hurtTime = playerHurtEntities.get(targetUUID);
-                long currentTime = System.currentTimeMillis();
-                
-                        // 检查是否在冷却时间内（使用配置文件中的值，转换为毫秒）
-                ShieldConfig config = Config.getShieldConfig("gy_trinket:shield_fire_ring");
-                long cooldownTimeMs = config.fireRingPlayerAttackExemptionTime * 50; // 1刻 = 50毫秒
-                if (currentTime - hurtTime <= cooldownTimeMs) {
-                    return true;
-                } else {
-                    // 超过冷却时间，移除该实体
-                    playerHurtEntities.remove(targetUUID);
-                }
-            }
+    @SubscribeEvent
+    public void onLevelUnload(LevelEvent.Unload event) {
+        if (event.getLevel() instanceof ServerLevel level) {
+            FireRingTargetIndex.remove(level);
         }
-        
-        return false;
     }
     
     /**
-     * 清理过期的伤害记录
+     * 火环护盾的每tick效果（由火环护盾的 ShieldEffect.tickEffect 调用，激活的护盾已确定是火环护盾）
+     * @param activeShield 激活的火环护盾
+     * @param player 玩家对象
+     * @param currentShield 当前护盾值
      */
-    private void cleanupExpiredHurtRecords() {
-        long currentTime = System.currentTimeMillis();
-       // 清理过期的伤害记录
-        ShieldConfig config = Config.getShieldConfig("gy_trinket:shield_fire_ring");
-        long cooldownTimeMs = config.fireRingPlayerAttackExemptionTime * 50; // 1刻 = 50毫秒
-        
-        recentlyHurtEntities.forEach((playerUUID, hurtEntities) -> {
-            hurtEntities.entrySet().removeIf(entry -> 
-                currentTime - entry.getValue() > cooldownTimeMs
-            );
-        });
-        
-        // 移除空的玩家条目
-        recentlyHurtEntities.entrySet().removeIf(entry -> 
-            entry.getValue().isEmpty()
-        );
-    }
-
-    /**
-     * 监听玩家tick事件，实现火环效果
-     * @param event 玩家tick事件
-     */
-    @SubscribeEvent
-    public void onPlayerTick(TickEvent.PlayerTickEvent event) {
-        Player player = event.player;
-        
+    public static void tickFireRing(ShieldItemGy activeShield, Player player, float currentShield) {
         // 客户端：生成火环粒子效果
-        if (event.side.isClient()) {
-            // 直接检查护盾值 - 由于网络同步机制，只要护盾值大于0，就说明玩家当前激活了护盾
-            float currentShield = ShieldManager.getPlayerShield(player);
+        if (player.level().isClientSide()) {
+            // 由于网络同步机制，只要护盾值大于0，就说明玩家当前激活了护盾
             // 将粒子生成频率降低一半（每2个tick生成一次）
-            // 并检查当前激活的护盾是否是火环护盾，只有火环护盾才生成火环粒子
-            if (currentShield > 0 && player.tickCount % 2 == 0 && ShieldManager.isClientActiveShieldFireRing(player)) {
+            if (currentShield > 0 && player.tickCount % 2 == 0) {
                 // 生成火环粒子效果
                 ShieldParticleGenerator.generateFireRingParticles(player);
             }
             return;
         }
 
-        Level level = player.level();
-
-        // 检查玩家是否激活了火环护盾
-        ShieldItemGy activeShield = ShieldManager.getActiveShieldItem(player);
-        if (!(activeShield instanceof FireRingShield)) {
-            return;
-        }
-
         // 检查护盾值是否大于0，只有护盾值大于0时才触发效果
-        float currentShield = ShieldEvent.getPlayerShield(player);
         if (currentShield <= 0) {
             return;
         }
 
-        // 获取火环配置
-        ShieldConfig config = Config.getShieldConfig("gy_trinket:shield_fire_ring");
+        // 获取火环配置（护盾物品绑定的配置快照）
+        ShieldConfig config = activeShield.getShieldConfig();
         
-        // 每N个刻执行一次效果，减少性能消耗（使用配置文件中的值）
-        if (player.tickCount % config.fireRingTriggerFrequency != 0) {
+        ShieldState state = ShieldCapability.get(player);
+        if (state == null) {
             return;
         }
+        int serverTick = player.getServer().getTickCount();
+        
+        // 每N个刻执行一次效果，减少性能消耗（使用配置文件中的值，各玩家错开触发，服务器卡顿时间隔放大）
+        // 到达触发刻时加入调度器的等待队列，在本刻结束时按轮询顺序和目标预算处理
+        if (FireRingScheduler.isDue(player, state, config.fireRingTriggerFrequency, serverTick)) {
+            FireRingScheduler.startRound(player, state, config.fireRingTriggerFrequency, serverTick);
+        }
+    }
+
+    /**
+     * 执行（或继续）玩家本轮的火环触发（由 FireRingScheduler 在服务器tick结束时调用）
+     * 伤害范围内本轮尚未伤害过的生物：达到每次触发的目标数量上限时结束本轮，本刻目标预算用完时停下，下一刻继续伤害剩余的生物
+     * （按生物id记录本轮已伤害的目标，范围内的生物移动、死亡或新生成都不会导致重复伤害或遗漏）
+     * @param player 玩家对象（已确认装备火环护盾且护盾值大于0）
+     * @param state 玩家护盾状态
+     * @param serverTick 当前服务器刻
+     * @return 本轮是否已结束
+     */
+    public static boolean runFireRing(Player player, ShieldState state, int serverTick) {
+        Level level = player.level();
+        ShieldConfig config = state.getEquippedShield().getShieldConfig();
+
+        int budget = FireRingScheduler.getRemainingBudget();
+        int maxTargets = config.fireRingMaxTargetsPerTrigger;
         
-        // 清理过期的伤害记录
-        cleanupExpiredHurtRecords();
+        // 按实际触发间隔放大伤害和护盾损耗，保持每秒效果不变（本轮开始时计算）
+        float scale = state.getFireRingRoundScale();
+        
+        // 玩家最近攻击的实体（豁免时间内不受火环伤害）
+        FireRingExemptionBuffer exemptions = state.getFireRingExemptions();
+        // 本轮已伤害的生物
+        IntOpenHashSet roundHits = state.getFireRingRoundHits();
 
         // 创建玩家周围的AABB检测范围（使用配置的火环半径）
         AABB aabb = player.getBoundingBox().inflate(config.fireRingRadius);
 
-        // 获取范围内的所有非玩家生物
-        List<Entity> entities = level.getEntities(player, aabb);
+        // 获取范围内的所有非玩家生物（本tick内同一维度的火环玩家共享空间索引，插入时已过滤掉玩家和非生物）
+        List<LivingEntity> targets = FireRingTargetIndex.get((ServerLevel) level).query((ServerLevel) level, aabb);
 
-        // 对每个实体执行火环效果
-        boolean hasEnemies = false;
-        for (Entity entity : entities) {
-            // 只对非玩家生物生效
-            if (entity instanceof LivingEntity && !(entity instanceof Player)) {
-                hasEnemies = true;
-                LivingEntity livingEntity = (LivingEntity) entity;
-                
-                // 检查敌人是否在最近500毫秒内被玩家伤害过，若是则跳过
-                if (isEntityRecentlyHurtByPlayer(player, livingEntity)) {
-                    continue;
-                }
-                
-                // 定义基础伤害值（使用配置文件中的值）
-                float baseDamage = (float) config.fireRingDamage;
-                float actualDamage = baseDamage;
-                
-                // 获取目标当前生命值
-                float currentHealth = livingEntity.getHealth();
-                
-                // 生命值检测和伤害源选择
-                if (currentHealth <= baseDamage) {
-                    // 目标生命值低于或等于基础伤害值时，使用玩家伤害源且伤害乘2(火伤好像穿甲的,但玩家伤害又穿不了,拉高点cos穿甲)
-                    actualDamage = baseDamage * 2;
-                    livingEntity.hurt(livingEntity.damageSources().playerAttack(player), actualDamage);
-                } else {
-                    // 目标生命值高于基础伤害值时，使用火焰伤害源
-                    livingEntity.hurt(livingEntity.damageSources().inFire(), actualDamage);
-                }
-                
-                // 直接清除敌人的伤害免疫时间，提高性能
-                livingEntity.invulnerableTime = 0;
-                
-                // 火环伤害敌人后损耗玩家护盾值（使用配置文件中的值）
-                float currentShieldValue = ShieldEvent.getPlayerShield(player);
-                float newShieldValue = Math.max(0, currentShieldValue - (float) config.fireRingShieldCost);
-                ShieldEvent.updatePlayerShield(player, newShieldValue);
-                
-                // 检查护盾值是否为零，若为零则重新开始护盾冷却
-                if (newShieldValue <= 0 && currentShieldValue > 0) {
-                    ShieldEvent.triggerShieldCooldown(player);
-                }
+        // 对本轮尚未伤害过的实体执行火环效果，护盾损耗累计后一次性扣除并同步
+        int hitCount = 0;
+        boolean finished = true;
+        for (LivingEntity livingEntity : targets) {
+            // 达到每次触发的目标数量上限时结束本轮
+            if (maxTargets > 0 && roundHits.size() >= maxTargets) {
+                break;
+            }
+            // 本刻的目标预算用完时停下，剩余目标下一刻继续
+            if (hitCount >= budget) {
+                finished = false;
+                break;
+            }
+            
+            // 本轮已伤害过的生物不再伤害
+            if (roundHits.contains(livingEntity.getId())) {
+                continue;
+            }
+            
+            // 检查敌人是否在豁免时间内被玩家攻击过，若是则跳过
+            if (exemptions.isExempt(livingEntity.getId(), serverTick, config.fireRingPlayerAttackExemptionTime)) {
+                continue;
+            }
+            
+            // 定义基础伤害值（使用配置文件中的值）
+            float baseDamage = (float) config.fireRingDamage * scale;
+            float actualDamage = baseDamage;
+            
+            // 获取目标当前生命值
+            float currentHealth = livingEntity.getHealth();
+            
+            // 生命值检测和伤害源选择
+            if (currentHealth <= baseDamage) {
+                // 目标生命值低于或等于基础伤害值时，使用玩家伤害源且伤害乘2(火伤好像穿甲的,但玩家伤害又穿不了,拉高点cos穿甲)
+                actualDamage = baseDamage * 2;
+                livingEntity.hurt(livingEntity.damageSources().playerAttack(player), actualDamage);
+            } else {
+                // 目标生命值高于基础伤害值时，使用火焰伤害源
+                livingEntity.hurt(livingEntity.damageSources().inFire(), actualDamage);
+            }
+            
+            // 直接清除敌人的伤害免疫时间，提高性能
+            livingEntity.invulnerableTime = 0;
+            roundHits.add(livingEntity.getId());
+            hitCount++;
+        }
+        
+        // 火环伤害敌人后损耗玩家护盾值（每个被伤害的敌人损耗一次配置值，每刻只更新和同步一次）
+        if (hitCount > 0) {
+            FireRingScheduler.consume(hitCount);
+            float currentShieldValue = ShieldEvent.getPlayerShield(player);
+            float newShieldValue = Math.max(0, currentShieldValue - hitCount * (float) config.fireRingShieldCost * scale);
+            ShieldEvent.updatePlayerShield(player, newShieldValue);
+            
+            // 检查护盾值是否为零，若为零则重新开始护盾冷却（护盾已破裂，本轮结束）
+            if (newShieldValue <= 0 && currentShieldValue > 0) {
+                ShieldEvent.triggerShieldCooldown(player);
+                return true;
             }
         }
         
-        // 在服务器端发送信号给客户端，指示是否有敌人
-        // 这里使用粒子生成的条件来间接控制，只有当有敌人时才会有后续的粒子生成逻辑
+        return finished;
     }
     
 
@@ -3,12 +3,17 @@ package com.gy_mod.gy_trinket.event;
 import com.gy_mod.gy_trinket.Config;
 import com.gy_mod.gy_trinket.item.ReflectShield;
 import com.gy_mod.gy_trinket.item.ShieldItemGy;
+import com.gy_mod.gy_trinket.shield.ReflectedFireballTracker;
 import com.gy_mod.gy_trinket.shield.ShieldDamageHandler;
+import net.minecraft.network.protocol.game.ClientboundExplodePacket;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.core.particles.ParticleTypes;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.world.entity.Entity;
 import net.minecraft.world.entity.LivingEntity;
 import net.minecraft.world.entity.monster.Blaze;
+import net.minecraft.world.entity.monster.Monster;
 import net.minecraft.world.damagesource.DamageSource;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.entity.projectile.Projectile;
@@ -18,11 +23,15 @@ import net.minecraft.world.entity.projectile.Arrow;
 import net.minecraft.world.entity.projectile.Fireball;
 import net.minecraft.world.entity.projectile.LargeFireball;
 import net.minecraft.world.level.Explosion;
+import net.minecraft.world.item.enchantment.ProtectionEnchantment;
+import net.minecraft.world.level.ClipContext;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.phys.AABB;
 import net.minecraft.world.phys.BlockHitResult;
 import net.minecraft.world.phys.EntityHitResult;
 import net.minecraft.world.phys.HitResult;
+import net.minecraft.world.phys.Vec3;
 import net.minecraftforge.common.MinecraftForge;
 import net.minecraftforge.event.TickEvent;
 import net.minecraftforge.event.entity.ProjectileImpactEvent;
@@ -30,6 +39,7 @@ import net.minecraftforge.eventbus.api.SubscribeEvent;
 
 import com.gy_mod.gy_trinket.shield.ShieldManager;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
@@ -113,12 +123,22 @@ public class  ReflectShieldEvent {
     public static class NoFireLargeFireball extends LargeFireball {
         // 存储爆炸半径
         private final int explosionRadius;
-        // 存储原弹射物的伤害值
-        private final float originalDamage;
+        // 存储原弹射物的伤害值（同一刻内的多次反射会合并到这里）
+        private float originalDamage;
         // 存储当前护盾值的10%因子
         private final double shieldFactor;
         // 存储反射伤害修正系数
         private final double damageModifier;
+        // 追踪范围（格）
+        private static final double HOMING_RANGE = 10.0D;
+        // 重新搜索追踪目标的间隔（刻）
+        private static final int HOMING_RETARGET_INTERVAL = 10;
+        // 当前追踪的目标（每刻只检查有效性，不重新搜索）
+        private LivingEntity homingTarget;
+        // 距离下次重新搜索目标的刻数
+        private int retargetCooldown;
+        // 生成时维度的游戏刻（用于合并同一刻内的反射）
+        private long spawnGameTime = Long.MIN_VALUE;
         
         public NoFireLargeFireball(Level worldIn, LivingEntity shooter, double accelX, double accelY, double accelZ, int explosionRadiusIn, float originalDamageIn, double shieldFactorIn, double damageModifierIn) {
             super(worldIn, shooter, accelX, accelY, accelZ, explosionRadiusIn);
@@ -158,22 +178,118 @@ public class  ReflectShieldEvent {
                 }
                 
                 // 创建一个不破坏地形但有伤害的爆炸
-                // 使用NONE爆炸类型，这种类型完全不会破坏地形但会对实体造成伤害
-                this.level().explode(
-                    this.getOwner(), // 爆炸源实体
-                    this.getX(), // X坐标
-                    this.getY(), // Y坐标
-                    this.getZ(), // Z坐标
-                    (float) this.explosionRadius, // 爆炸半径
-                    false, // 是否生成火焰
-                    Level.ExplosionInteraction.NONE // 爆炸交互类型，NONE完全不会破坏地形但会对实体造成伤害
-                );
+                // 爆炸完全不会破坏地形，因此不走原版爆炸（原版即使不破坏方块也会计算1352条射线和方块抗性），只对实体造成伤害
+                explodeEntitiesOnly((ServerLevel) this.level(), (float) this.explosionRadius);
                 
                 // 移除烈焰弹实体
                 this.discard();
             }
         }
         
+        /**
+         * 只对实体生效的爆炸
+         * 伤害、击退公式与原版爆炸相同，遮挡程度只用3条射线近似（原版按实体碰撞箱密集采样），
+         * 客户端的爆炸音效和粒子通过一个不含方块的原版爆炸数据包发送
+         * @param level 服务端维度
+         * @param radius 爆炸半径
+         */
+        private void explodeEntitiesOnly(ServerLevel level, float radius) {
+            double x = this.getX();
+            double y = this.getY();
+            double z = this.getZ();
+            Vec3 center = new Vec3(x, y, z);
+            float diameter = radius * 2.0F;
+            AABB area = new AABB(x - diameter - 1.0D, y - diameter - 1.0D, z - diameter - 1.0D,
+                    x + diameter + 1.0D, y + diameter + 1.0D, z + diameter + 1.0D);
+            DamageSource source = this.damageSources().explosion(this, this.getOwner());
+            Map<Player, Vec3> hitPlayers = new HashMap<>();
+            // 与原版以反射者为爆炸来源时一致：爆炸不伤害、不击退反射烈焰弹的玩家自身
+            Entity owner = this.getOwner();
+            
+            for (Entity entity : level.getEntities(this, area, entity -> entity != owner)) {
+                if (entity.ignoreExplosion()) {
+                    continue;
+                }
+                double distance = Math.sqrt(entity.distanceToSqr(center)) / diameter;
+                if (distance > 1.0D) {
+                    continue;
+                }
+                double dx = entity.getX() - x;
+                double dy = entity.getEyeY() - y;
+                double dz = entity.getZ() - z;
+                double length = Math.sqrt(dx * dx + dy * dy + dz * dz);
+                if (length == 0.0D) {
+                    continue;
+                }
+                dx /= length;
+                dy /= length;
+                dz /= length;
+                
+                // 伤害随距离和遮挡程度衰减
+                double impact = (1.0D - distance) * getExposure(level, center, entity);
+                entity.hurt(source, (float) ((int) ((impact * impact + impact) / 2.0D * 7.0D * diameter + 1.0D)));
+                
+                // 击退（爆炸保护附魔会削弱击退）
+                double knockback = entity instanceof LivingEntity living
+                        ? ProtectionEnchantment.getExplosionKnockbackAfterDampener(living, impact)
+                        : impact;
+                Vec3 push = new Vec3(dx * knockback, dy * knockback, dz * knockback);
+                entity.setDeltaMovement(entity.getDeltaMovement().add(push));
+                if (entity instanceof Player player && !player.isSpectator() && !(player.isCreative() && player.getAbilities().flying)) {
+                    hitPlayers.put(player, push);
+                }
+            }
+            
+            // 每个附近玩家只发送一个数据包（音效、粒子和玩家自身的击退）
+            for (ServerPlayer player : level.players()) {
+                if (player.distanceToSqr(x, y, z) < 4096.0D) {
+                    player.connection.send(new ClientboundExplodePacket(x, y, z, radius, Collections.emptyList(), hitPlayers.get(player)));
+                }
+            }
+        }
+        
+        /**
+         * 近似计算实体暴露在爆炸中的比例：从爆炸中心分别向实体碰撞箱底部、中心、顶部各发射一条射线，未被方块遮挡的比例
+         */
+        private static double getExposure(Level level, Vec3 center, Entity entity) {
+            AABB box = entity.getBoundingBox();
+            double midX = (box.minX + box.maxX) * 0.5D;
+            double midZ = (box.minZ + box.maxZ) * 0.5D;
+            int visible = 0;
+            for (int i = 0; i < 3; i++) {
+                Vec3 point = new Vec3(midX, box.minY + (box.maxY - box.minY) * (0.1D + 0.4D * i), midZ);
+                if (level.clip(new ClipContext(point, center, ClipContext.Block.COLLIDER, ClipContext.Fluid.NONE, entity)).getType() == HitResult.Type.MISS) {
+                    visible++;
+                }
+            }
+            return visible / 3.0D;
+        }
+        
+        /**
+         * 合并一次反射：按本烈焰弹的护盾因子折算原弹射物伤害后累加，使合并后的伤害等于分别反射的伤害之和
+         * @param originalDamage 被合并的原弹射物伤害值
+         * @param shieldFactor 被合并的反射的护盾因子
+         */
+        public void mergeReflection(float originalDamage, double shieldFactor) {
+            this.originalDamage += (float) (originalDamage * shieldFactor / this.shieldFactor);
+        }
+        
+        public long getSpawnGameTime() {
+            return spawnGameTime;
+        }
+        
+        public void setSpawnGameTime(long spawnGameTime) {
+            this.spawnGameTime = spawnGameTime;
+        }
+        
+        @Override
+        public void onRemovedFromWorld() {
+            super.onRemovedFromWorld();
+            if (!this.level().isClientSide()) {
+                ReflectedFireballTracker.untrack(this);
+            }
+        }
+        
         @Override
         public void tick() {
             super.tick();
@@ -183,102 +299,89 @@ public class  ReflectShieldEvent {
                 return;
             }
             
-            // 搜索范围内的敌人实体，追踪范围为10格
-            List<Entity> entities = this.level().getEntities(this, this.getBoundingBox().inflate(10.0D), entity -> {
-                // 排除：
-                // 1. 自己
-                // 2. 发射者（玩家）
-                // 3. 其他火球
-                // 4. 玩家
-                // 5. 掉落物
-                // 6. 经验球
-                // 7. 盔甲架
-                // 8. 画
-                // 9. 非生物实体
-                if (entity == this || entity == this.getOwner() || entity instanceof Fireball) {
-                    return false;
-                }
-                if (entity instanceof Player) {
-                    return false;
-                }
-                // 更兼容1.18.2版本的实体类型检查
-                if (entity.getType() == net.minecraft.world.entity.EntityType.ITEM_FRAME || 
-                    entity.getType() == net.minecraft.world.entity.EntityType.GLOW_ITEM_FRAME) {
-                    return false;
-                }
-                if (entity.getType() == net.minecraft.world.entity.EntityType.ARMOR_STAND) {
-                    return false;
-                }
-                if (entity.getType() == net.minecraft.world.entity.EntityType.EXPERIENCE_ORB) {
-                    return false;
-                }
-                if (entity.getType() == net.minecraft.world.entity.EntityType.ITEM) {
-                    return false;
-                }
-                if (!(entity instanceof LivingEntity)) {
-                    return false;
-                }
-                // 确保是敌对实体
-                if (entity instanceof LivingEntity) {
-                    // 在1.18.2中，检查实体是否是怪物（实现了Monster接口）
-                    return entity instanceof net.minecraft.world.entity.monster.Monster;
-                }
-                return false;
-            });
+            // 每刻只做廉价的有效性检查，目标丢失时立即重新搜索，否则每隔固定刻数重新搜索最近的敌人
+            if (this.homingTarget != null && !isValidHomingTarget(this.homingTarget)) {
+                this.homingTarget = null;
+                this.retargetCooldown = 0;
+            }
+            if (--this.retargetCooldown <= 0) {
+                this.homingTarget = findHomingTarget();
+                this.retargetCooldown = HOMING_RETARGET_INTERVAL;
+            }
+            
+            LivingEntity target = this.homingTarget;
+            if (target == null) {
+                return;
+            }
             
-            // 如果找到合适的目标
-            if (!entities.isEmpty()) {
-                // 找到最近的敌人
-                Entity nearestEntity = null;
-                double nearestDistance = Double.MAX_VALUE;
+            // 计算追踪方向
+            double dx = target.getX() - this.getX();
+            double dy = target.getY() + target.getBbHeight() * 0.5 - this.getY(); // 瞄准实体中心
+            double dz = target.getZ() - this.getZ();
+            
+            // 计算追踪方向的单位向量
+            double magnitude = Math.sqrt(dx * dx + dy * dy + dz * dz);
+            if (magnitude > 0) {
+                dx /= magnitude;
+                dy /= magnitude;
+                dz /= magnitude;
                 
-                for (Entity entity : entities) {
-                    double distance = this.distanceToSqr(entity);
-                    if (distance < nearestDistance) {
-                        nearestDistance = distance;
-                        nearestEntity = entity;
-                    }
+                // 获取当前运动方向
+                double currentDx = this.getDeltaMovement().x();
+                double currentDy = this.getDeltaMovement().y();
+                double currentDz = this.getDeltaMovement().z();
+                
+                // 计算当前运动速度
+                double currentSpeed = Math.sqrt(currentDx * currentDx + currentDy * currentDy + currentDz * currentDz);
+                
+                // 平滑追踪：逐渐转向目标方向，每次转向60%（增强追踪效果）
+                double newDx = currentDx * 0.4 + dx * 0.6;
+                double newDy = currentDy * 0.4 + dy * 0.6;
+                double newDz = currentDz * 0.4 + dz * 0.6;
+                
+                // 保持速度不变
+                double newMagnitude = Math.sqrt(newDx * newDx + newDy * newDy + newDz * newDz);
+                if (newMagnitude > 0) {
+                    newDx = newDx / newMagnitude * currentSpeed;
+                    newDy = newDy / newMagnitude * currentSpeed;
+                    newDz = newDz / newMagnitude * currentSpeed;
                 }
                 
-                if (nearestEntity != null) {
-                    // 计算追踪方向
-                    double dx = nearestEntity.getX() - this.getX();
-                    double dy = nearestEntity.getY() + nearestEntity.getBbHeight() * 0.5 - this.getY(); // 瞄准实体中心
-                    double dz = nearestEntity.getZ() - this.getZ();
-                    
-                    // 计算追踪方向的单位向量
-                    double magnitude = Math.sqrt(dx * dx + dy * dy + dz * dz);
-                    if (magnitude > 0) {
-                        dx /= magnitude;
-                        dy /= magnitude;
-                        dz /= magnitude;
-                        
-                        // 获取当前运动方向
-                        double currentDx = this.getDeltaMovement().x();
-                        double currentDy = this.getDeltaMovement().y();
-                        double currentDz = this.getDeltaMovement().z();
-                        
-                        // 计算当前运动速度
-                        double currentSpeed = Math.sqrt(currentDx * currentDx + currentDy * currentDy + currentDz * currentDz);
-                        
-                        // 平滑追踪：逐渐转向目标方向，每次转向60%（增强追踪效果）
-                        double newDx = currentDx * 0.4 + dx * 0.6;
-                        double newDy = currentDy * 0.4 + dy * 0.6;
-                        double newDz = currentDz * 0.4 + dz * 0.6;
-                        
-                        // 保持速度不变
-                        double newMagnitude = Math.sqrt(newDx * newDx + newDy * newDy + newDz * newDz);
-                        if (newMagnitude > 0) {
-                            newDx = newDx / newMagnitude * currentSpeed;
-                            newDy = newDy / newMagnitude * currentSpeed;
-                            newDz = newDz / newMagnitude * currentSpeed;
-                        }
-                        
-                        // 设置新的运动方向
-                        this.setDeltaMovement(newDx, newDy, newDz);
-                    }
+                // 设置新的运动方向
+                this.setDeltaMovement(newDx, newDy, newDz);
+            }
+        }
+        
+        /**
+         * 检查当前追踪目标是否仍然有效（存活、在同一维度、在追踪范围内）
+         */
+        private boolean isValidHomingTarget(LivingEntity target) {
+            return target.isAlive() && target.level() == this.level()
+                    && this.distanceToSqr(target) <= HOMING_RANGE * HOMING_RANGE;
+        }
+        
+        /**
+         * 搜索追踪范围内最近的敌对生物
+         * 只查询怪物类实体（排除玩家、掉落物、经验球、盔甲架、展示框等非敌对实体），并先按距离平方过滤
+         * @return 最近的敌对生物，没有时为null
+         */
+        private LivingEntity findHomingTarget() {
+            double rangeSqr = HOMING_RANGE * HOMING_RANGE;
+            Entity owner = this.getOwner();
+            List<Monster> monsters = this.level().getEntitiesOfClass(Monster.class, this.getBoundingBox().inflate(HOMING_RANGE),
+                    monster -> monster != owner && monster.isAlive() && this.distanceToSqr(monster) <= rangeSqr);
+            
+            // 找到最近的敌人
+            LivingEntity nearestEntity = null;
+            double nearestDistance = Double.MAX_VALUE;
+            for (Monster monster : monsters) {
+                double distance = this.distanceToSqr(monster);
+                if (distance < nearestDistance) {
+                    nearestDistance = distance;
+                    nearestEntity = monster;
                 }
             }
+            return nearestEntity;
         }
         
 
@@ -302,6 +405,12 @@ public class  ReflectShieldEvent {
         float currentShieldFloat = ShieldEvent.getPlayerShield(player);
         double shieldFactor = Math.max(currentShieldFloat * 0.1, 1.0);
         
+        // 同一刻内的多次反射合并为一个伤害更高的烈焰弹，不再生成新的实体
+        ServerLevel level = (ServerLevel) player.level();
+        if (ReflectedFireballTracker.tryMerge(level, player, originalDamage, shieldFactor)) {
+            return;
+        }
+        
         // 计算新速度：（原速度 × 护盾因子 + 3）× 配置的速度修正系数
         double newSpeed = (info.getOriginalSpeed() * shieldFactor + 3) * Config.reflectShieldSpeedModifier;
         
@@ -348,8 +457,10 @@ public class  ReflectShieldEvent {
         fireball.tickCount = 0;
         fireball.setInvulnerable(false);
         
-        // 将烈焰弹添加到世界
-        player.level().addFreshEntity(fireball);
+        // 将烈焰弹添加到世界，并记录到维度的反射烈焰弹数量上限中
+        if (level.addFreshEntity(fireball)) {
+            ReflectedFireballTracker.track(level, player, fireball);
+        }
     }
     
 
@@ -1,17 +1,21 @@
 package com.gy_mod.gy_trinket.event;
 
 import com.gy_mod.gy_trinket.Config;
-import com.gy_mod.gy_trinket.network.ModMessages;
+import com.gy_mod.gy_trinket.capability.shield.ShieldCapability;
 import com.gy_mod.gy_trinket.item.ShieldItemGy;
-import com.gy_mod.gy_trinket.network.ShieldUpdatePacket;
 import com.gy_mod.gy_trinket.shield.ShieldManager;
+import com.gy_mod.gy_trinket.shield.ShieldNetworkManager;
+import com.gy_mod.gy_trinket.shield.ShieldState;
+import com.gy_mod.gy_trinket.shield.ShieldTimerWheel;
 import net.minecraftforge.registries.ForgeRegistries;
+import net.minecraft.nbt.CompoundTag;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.entity.projectile.Projectile;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.server.level.ServerLevel;
 import net.minecraft.server.MinecraftServer;
+import net.minecraftforge.server.ServerLifecycleHooks;
 import net.minecraft.world.inventory.PlayerEnderChestContainer;
 import net.minecraft.world.damagesource.DamageSource;
 import net.minecraft.world.entity.Entity;
@@ -23,35 +27,18 @@ import net.minecraftforge.eventbus.api.SubscribeEvent;
 import net.minecraftforge.fml.common.Mod;
 import net.minecraftforge.fml.event.config.ModConfigEvent;
 import net.minecraftforge.registries.ForgeRegistries;
-import net.minecraftforge.event.TickEvent;
 import com.gy_mod.gy_trinket.item.ShieldItemGy;
 import com.gy_mod.gy_trinket.item.ReflectShield;
 import com.gy_mod.gy_trinket.item.AmplifierShield;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.UUID;
-
 /**
  * 护盾事件处理类
  * 处理玩家护盾的创建、伤害吸收、恢复冷却等逻辑
  */
 public class ShieldEvent {
-    // 存储玩家的护盾数据：UUID -> 剩余护盾值（放大100倍存储为整数，实现小数效果）
-    private static final Map<UUID, Integer> PLAYER_SHIELD = new HashMap<>();
-    // 存储玩家的护盾冷却时间开始时间：UUID -> 开始冷却的刻数
-    private static final Map<UUID, Integer> SHIELD_COOLDOWN_START = new HashMap<>();
-    // 存储玩家的护盾重构开始时间：UUID -> 开始重构的刻数
-    private static final Map<UUID, Integer> SHIELD_REBUILD_START = new HashMap<>();
-    // 存储玩家的护盾重构前的初始值：UUID -> 重构开始时的护盾值（放大100倍）
-    private static final Map<UUID, Integer> SHIELD_REBUILD_INITIAL = new HashMap<>();
-    // 存储玩家的无敌时间结束刻数：UUID -> 无敌时间结束的刻数
-    private static final Map<UUID, Integer> INVULNERABILITY_END = new HashMap<>();
-    // 存储玩家最后一次触发护盾冷却的刻数（用于防止高频触发）
-    private static final Map<UUID, Integer> LAST_COOLDOWN_TRIGGER = new HashMap<>();
-    
-    // 存储玩家最近一次的弹射物伤害信息（用于反射护盾）
-    private static final Map<UUID, ProjectileDamageInfo> LAST_PROJECTILE_INFO = new HashMap<>();
+    // 玩家的护盾状态（护盾值、冷却、重构、无敌时间等合并在同一对象中）通过 ShieldCapability 附加在玩家实体上
+    // 旧版本保存在玩家持久化NBT中的护盾值键（仅用于迁移）
+    private static final String LEGACY_SHIELD_VALUE_KEY = "gy_trinket:shield_value";
     
     // 内部类：存储弹射物伤害信息
     public static class ProjectileDamageInfo {
@@ -87,15 +74,36 @@ public class ShieldEvent {
         public double getDirZ() { return dirZ; }
     }
 
+    /**
+     * 获取玩家的护盾状态
+     * @param player 玩家对象
+     * @return 护盾状态，如果玩家没有护盾能力则返回null
+     */
+    public static ShieldState getState(Player player) {
+        return ShieldCapability.get(player);
+    }
+
+    /**
+     * 获取玩家的护盾状态，并将其标记为已初始化（未初始化时为0护盾值）
+     * @param player 玩家对象
+     * @return 护盾状态，如果玩家没有护盾能力则返回null
+     */
+    public static ShieldState getOrCreateState(Player player) {
+        ShieldState state = ShieldCapability.get(player);
+        if (state != null) {
+            state.setInitialized(true);
+        }
+        return state;
+    }
+
     /**
      * 获取玩家当前护盾值（供其他类调用）
      * @param player 玩家对象
      * @return 当前护盾值（float类型，已缩小100倍）
      */
     public static float getPlayerShield(Player player) {
-        UUID playerId = player.getUUID();
-        int scaledShield = PLAYER_SHIELD.getOrDefault(playerId, 0);
-        return scaledShield / 100.0f;
+        ShieldState state = getState(player);
+        return state == null ? 0.0f : state.getShield() / 100.0f;
     }
     
     /**
@@ -109,8 +117,6 @@ public class ShieldEvent {
             return;
         }
         
-        UUID playerId = player.getUUID();
-        
         // 保存原弹射物的位置和运动向量
         double projectileX = projectile.getX();
         double projectileY = projectile.getY();
@@ -135,7 +141,10 @@ public class ShieldEvent {
                                                            projectileX, projectileY, projectileZ,
                                                            dirX, dirY, dirZ);
         
-        LAST_PROJECTILE_INFO.put(playerId, info);
+        ShieldState state = getOrCreateState(player);
+        if (state != null) {
+            state.setLastProjectileInfo(info);
+        }
     }
     
     /**
@@ -144,8 +153,8 @@ public class ShieldEvent {
      * @return 弹射物伤害信息，如果没有则返回null
      */
     public static ProjectileDamageInfo getLastProjectileInfo(Player player) {
-        UUID playerId = player.getUUID();
-        return LAST_PROJECTILE_INFO.getOrDefault(playerId, null);
+        ShieldState state = getState(player);
+        return state == null ? null : state.getLastProjectileInfo();
     }
     
     /**
@@ -153,8 +162,10 @@ public class ShieldEvent {
      * @param player 玩家对象
      */
     public static void removeLastProjectileInfo(Player player) {
-        UUID playerId = player.getUUID();
-        LAST_PROJECTILE_INFO.remove(playerId);
+        ShieldState state = getState(player);
+        if (state != null) {
+            state.setLastProjectileInfo(null);
+        }
     }
     
     /**
@@ -163,17 +174,20 @@ public class ShieldEvent {
      * @param newShieldValue 新的护盾值（float类型，会自动放大100倍存储）
      */
     public static void updatePlayerShield(Player player, float newShieldValue) {
-        UUID playerId = player.getUUID();
+        ShieldState state = getOrCreateState(player);
+        if (state == null) {
+            return;
+        }
         int scaledShield = Math.round(newShieldValue * 100);
         
         // 确保护盾值不会为负数
         scaledShield = Math.max(0, scaledShield);
         
         // 更新护盾值
-        PLAYER_SHIELD.put(playerId, scaledShield);
+        state.setShield(scaledShield);
         
         // 自动发送护盾更新数据包
-        sendShieldUpdate(player);
+        sendShieldUpdate(player, state);
     }
 
     /**
@@ -189,71 +203,24 @@ public class ShieldEvent {
      * @param player 玩家对象
      */
     protected static void triggerShieldCooldown(Player player) {
-        UUID playerId = player.getUUID();
-        int currentTick = player.tickCount;
+        ShieldState state = getOrCreateState(player);
+        if (state == null) {
+            return;
+        }
         
         // 开始新的护盾冷却
-        SHIELD_COOLDOWN_START.put(playerId, currentTick);
+        state.setCooldownStart(player.tickCount);
         // 清除可能的重构状态
-        SHIELD_REBUILD_START.remove(playerId);
-        SHIELD_REBUILD_INITIAL.remove(playerId);
+        state.clearRebuild();
     }
 
     /**
-     * 发送护盾值更新到客户端
+     * 标记护盾值需要同步到客户端（由 ShieldNetworkManager 在本tick结束时统一发送，每tick最多一个数据包）
      * @param player 玩家对象
+     * @param state 玩家护盾状态
      */
-    private static void sendShieldUpdate(Player player) {
-        // 只在服务端执行，并确保是服务器玩家
-        if (!player.level().isClientSide() && player instanceof ServerPlayer serverPlayer) {
-            UUID playerId = player.getUUID();
-            int scaledShield = PLAYER_SHIELD.getOrDefault(playerId, 0);
-            float actualShield = scaledShield / 100.0f;
-            
-            // 计算冷却时间信息
-            int currentCooldown = 0;
-            int maxCooldown = ShieldManager.getShieldRebuildWaitTime(player);
-            
-            // 检查玩家是否在冷却中
-            if (SHIELD_COOLDOWN_START.containsKey(playerId)) {
-                int startTick = SHIELD_COOLDOWN_START.get(playerId);
-                int currentTick = player.tickCount;
-                
-                // 计算已经过去的冷却时间
-                currentCooldown = currentTick - startTick;
-                
-                // 计算实际的冷却结束时间 = startTick + ShieldManager.getShieldRebuildWaitTime(player)
-                // 这是因为我们通过调整开始时间来延长冷却，所以结束时间 = 新的开始时间 + 原始冷却时间
-                int endTick = startTick + ShieldManager.getShieldRebuildWaitTime(player);
-                
-                // 计算实际的总冷却时间 = endTick - 原始开始时间
-                // 由于我们可能多次调整开始时间，原始开始时间已经丢失，所以我们使用一个简单的方法：
-                // 如果结束时间大于当前时间 + 原始冷却时间，说明冷却被延长了
-                int actualMaxCooldown = endTick - startTick;
-                
-                // 确保maxCooldown至少为原始值
-                maxCooldown = Math.max(actualMaxCooldown, ShieldManager.getShieldRebuildWaitTime(player));
-            }
-            
-            // 检查玩家是否正在进行护盾重构
-            boolean isRebuilding = SHIELD_REBUILD_START.containsKey(playerId);
-            
-            // 获取玩家当前激活的护盾类型
-            ShieldItemGy activeShield = ShieldManager.getActiveShieldItem(player);
-            String shieldType = "";
-            if (activeShield != null) {
-                shieldType = ForgeRegistries.ITEMS.getKey(activeShield.asItem()).toString();
-            }
-            
-            // 获取所有正在应用的伤害提升百分比
-            float damageBonusPercentage = 0.0F;
-            if (activeShield instanceof AmplifierShield) {
-                damageBonusPercentage = AmplifierShieldEvent.getAllDamageModifiers(player);
-            }
-            
-            // 发送护盾更新数据包到客户端，包含冷却时间信息、重构状态、护盾类型和伤害提升
-            ShieldUpdatePacket.sendToPlayer(ModMessages.INSTANCE, new ShieldUpdatePacket(actualShield, (int)ShieldManager.getMaxShield(player), currentCooldown, maxCooldown, isRebuilding, shieldType, damageBonusPercentage), serverPlayer);
-        }
+    private static void sendShieldUpdate(Player player, ShieldState state) {
+        ShieldNetworkManager.markDirty(player, state);
     }
 
     /**
@@ -267,41 +234,48 @@ public class ShieldEvent {
      * 处理配置重载事件，当配置文件变更时更新所有玩家的护盾值
      */
     public static void onConfigReload(ModConfigEvent event) {
-        // 遍历所有玩家的护盾数据，确保它们不超过新的最大护盾值
-        for (UUID playerId : PLAYER_SHIELD.keySet()) {
-            int currentShield = PLAYER_SHIELD.get(playerId);
-            // 由于无法直接获取玩家对象，我们使用默认的最大护盾值
-            int maxShieldScaled = Config.maxShield * 100;
-            
-            if (currentShield > maxShieldScaled) {
-                PLAYER_SHIELD.put(playerId, maxShieldScaled);
-            }
-        }
-        
-        // 重置所有玩家的护盾重构状态，确保新的配置生效
-        for (UUID playerId : SHIELD_REBUILD_START.keySet()) {
-            // 重置重构状态，让新的配置生效
-            SHIELD_REBUILD_START.remove(playerId);
-            SHIELD_REBUILD_INITIAL.remove(playerId);
+        // 服务器未启动时（如主菜单）没有需要更新的玩家
+        MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
+        if (server == null) {
+            configReloaded = true;
+            return;
         }
         
-        // 添加配置重载标记，在玩家下次tick时发送更新
-        configReloaded = true;
+        // 配置重载事件在配置监视线程上触发，玩家护盾状态只能在服务器主线程上修改
+        server.execute(() -> {
+            // 使用默认的最大护盾值（各护盾自己的上限在玩家下次tick时限制）
+            int maxShieldScaled = Config.maxShield * 100;
+
+            // 遍历所有在线玩家的护盾状态，确保它们不超过新的最大护盾值，并重置重构状态让新的配置生效
+            for (ServerPlayer player : server.getPlayerList().getPlayers()) {
+                ShieldState state = getState(player);
+                if (state == null) {
+                    continue;
+                }
+                if (state.getShield() > maxShieldScaled) {
+                    state.setShield(maxShieldScaled);
+                }
+                state.clearRebuild();
+                // 唤醒空闲玩家，让新的最大护盾值和冷却时间在下次tick时生效
+                state.markTimersDirty();
+            }
+
+            // 添加配置重载标记，在玩家下次tick时发送更新
+            configReloaded = true;
+        });
     }
     
     // 配置重载标记，用于在玩家下次tick时发送更新
     private static boolean configReloaded = false;
     
-    // 存储最近一次弹射物攻击的实际伤害值，用于反射护盾计算
-    private static final Map<UUID, Float> LAST_PROJECTILE_DAMAGE = new HashMap<>();
-    
     /**
      * 获取玩家最近一次受到的弹射物伤害值
      * @param player 玩家
      * @return 最近一次弹射物伤害值，如果没有则返回0
      */
     public static float getLastProjectileDamage(Player player) {
-        return LAST_PROJECTILE_DAMAGE.getOrDefault(player.getUUID(), 0.0F);
+        ShieldState state = getState(player);
+        return state == null ? 0.0F : state.getLastProjectileDamage();
     }
     
     /**
@@ -310,7 +284,10 @@ public class ShieldEvent {
      * @param damage 伤害值
      */
     public static void setLastProjectileDamage(Player player, float damage) {
-        LAST_PROJECTILE_DAMAGE.put(player.getUUID(), damage);
+        ShieldState state = getOrCreateState(player);
+        if (state != null) {
+            state.setLastProjectileDamage(damage);
+        }
     }
     
     /**
@@ -319,17 +296,20 @@ public class ShieldEvent {
      * @param damage 弹射物伤害值
      */
     public static void handleReflectionCooldown(Player player, float damage) {
-        UUID playerId = player.getUUID();
+        ShieldState state = getOrCreateState(player);
+        if (state == null) {
+            return;
+        }
         int currentTick = player.tickCount;
         
         // 检查当前护盾值是否未满
-        float updatedShieldFloat = getPlayerShield(player);
+        float updatedShieldFloat = state.getShield() / 100.0f;
         float maxShieldFloat = ShieldManager.getMaxShield(player);
         
         if (updatedShieldFloat < maxShieldFloat) {
             // 如果正在护盾冷却中，延长冷却时间
-            if (SHIELD_COOLDOWN_START.containsKey(playerId)) {
-                int cooldownStartTick = SHIELD_COOLDOWN_START.get(playerId);
+            if (state.isInCooldown()) {
+                int cooldownStartTick = state.getCooldownStart();
                 int originalCooldownEnd = cooldownStartTick + ShieldManager.getShieldRebuildWaitTime(player);
                 int remainingCooldown = Math.max(0, originalCooldownEnd - currentTick);
                 
@@ -346,13 +326,12 @@ public class ShieldEvent {
                 
                 // 更新冷却开始时间（相当于延长冷却），确保不小于当前时间
                 int newCooldownStart = newCooldownEnd - ShieldManager.getShieldRebuildWaitTime(player);
-                SHIELD_COOLDOWN_START.put(playerId, Math.max(newCooldownStart, currentTick));
+                state.setCooldownStart(Math.max(newCooldownStart, currentTick));
             } else {
                 // 开始新的护盾冷却
-                SHIELD_COOLDOWN_START.put(playerId, currentTick);
+                state.setCooldownStart(currentTick);
                 // 清除可能的重构状态
-                SHIELD_REBUILD_START.remove(playerId);
-                SHIELD_REBUILD_INITIAL.remove(playerId);
+                state.clearRebuild();
             }
         }
     }
@@ -376,28 +355,30 @@ public class ShieldEvent {
             return;
         }
 
-        UUID playerId = player.getUUID();
+        // 如果玩家没有护盾数据，初始化为0护盾值（整个事件只解析一次护盾状态）
+        ShieldState state = getOrCreateState(player);
+        if (state == null) {
+            return;
+        }
         int currentTick = player.tickCount;
         
         // 检查玩家是否处于无敌时间内
-        if (INVULNERABILITY_END.containsKey(playerId)) {
-            int invulnerabilityEnd = INVULNERABILITY_END.get(playerId);
+        if (state.hasInvulnerability()) {
+            int invulnerabilityEnd = state.getInvulnerabilityEnd();
             if (currentTick <= invulnerabilityEnd) {
                 // 玩家处于无敌时间内，取消攻击事件
                 event.setCanceled(true);
                 return;
             } else {
                 // 无敌时间结束，移除无敌状态
-                INVULNERABILITY_END.remove(playerId);
+                state.clearInvulnerability();
             }
         }
 
-        // 如果玩家没有护盾数据，初始化为0护盾值
-        PLAYER_SHIELD.putIfAbsent(playerId, 0);
-        int currentShield = PLAYER_SHIELD.get(playerId);
+        int currentShield = state.getShield();
 
         // 检查是否正在进行护盾重构
-        boolean isRebuilding = SHIELD_REBUILD_START.containsKey(playerId);
+        boolean isRebuilding = state.isRebuilding();
         
         // 获取原始伤害值（在条件块外部定义，确保整个方法都能访问）
         float damage = event.getAmount();
@@ -406,7 +387,7 @@ public class ShieldEvent {
         // 我们已经在方法开始处获取了source变量，所以直接使用它
         Entity directEntity = source.getDirectEntity();
         if (directEntity instanceof Projectile projectile) {
-            setLastProjectileDamage(player, damage);
+            state.setLastProjectileDamage(damage);
             // 存储弹射物信息
             setLastProjectileInfo(player, projectile);
         }
@@ -437,21 +418,21 @@ public class ShieldEvent {
             float remainingDamage = remainingScaledDamage / 100.0f;
             
             // 更新护盾值
-            PLAYER_SHIELD.put(playerId, currentShield - absorbed);
+            state.setShield(currentShield - absorbed);
             // 发送护盾值更新到客户端
-            sendShieldUpdate(player);
+            sendShieldUpdate(player, state);
             
-            // 检查是否使用增幅护盾，如果是，记录损失的护盾值（伤害）
-            if (activeShield instanceof com.gy_mod.gy_trinket.item.AmplifierShield) {
-                // 将吸收的伤害缩小回原始比例（用于增幅护盾效果）
+            // 触发护盾吸收伤害的效果（如增幅护盾记录损失的护盾值）
+            if (activeShield != null) {
+                // 将吸收的伤害缩小回原始比例
                 float absorbedDamage = absorbed / 100.0f;
-                AmplifierShieldEvent.recordShieldDamage(player, absorbedDamage);
+                activeShield.getShieldEffect().onDamageAbsorbed(activeShield, player, source, absorbedDamage);
             }
             
             // 检查是否有弹射物信息，如果有，调用反射护盾的处理逻辑
             // 使用反射伤害（被吸收的伤害）作为实际伤害值
             float actualReflectDamage = absorbed / 100.0f; // 缩小回原始比例
-            if (getLastProjectileInfo(player) != null) {
+            if (state.getLastProjectileInfo() != null) {
                 // 使用反射护盾处理逻辑
                 ReflectShieldEvent.handleReflectAfterShield(player, actualReflectDamage);
             }
@@ -463,37 +444,20 @@ public class ShieldEvent {
             
             // 设置短暂无敌时间（在剩余伤害应用之后）
             // 从配置文件中读取无敌时间设置
-            INVULNERABILITY_END.put(playerId, currentTick + ShieldManager.getShieldInvulnerabilityDuration(player));
+            state.setInvulnerabilityEnd(currentTick + ShieldManager.getShieldInvulnerabilityDuration(player));
             
             // 检查当前护盾值是否未满或为零
-            int updatedShield = PLAYER_SHIELD.getOrDefault(playerId, 0);
+            int updatedShield = state.getShield();
             int maxShieldScaled = (int)(ShieldManager.getMaxShield(player) * 100);
             if (updatedShield < maxShieldScaled) {
                 // 如果正在护盾冷却中，延长冷却时间
-                if (SHIELD_COOLDOWN_START.containsKey(playerId)) {
-                    int cooldownStartTick = SHIELD_COOLDOWN_START.get(playerId);
-                    int originalCooldownEnd = cooldownStartTick + ShieldManager.getShieldRebuildWaitTime(player);
-                    
-                    // 基于伤害值计算冷却延长时间：基础值 * (提升倍数 ^ 伤害值)
-                    int extendedCooldownTime = (int) (ShieldManager.getShieldWaitTimeExtensionOnHurt(player) * Math.pow(ShieldManager.getShieldCooldownExtensionMultiplier(player), damage));
-                    
-                    // 确保延长时间至少为基础值
-                    extendedCooldownTime = Math.max(extendedCooldownTime, ShieldManager.getShieldWaitTimeExtensionOnHurt(player));
-                    
-                    // 计算新的冷却结束时间：原始冷却结束时间 + 新的冷却延长时间
-                    int newCooldownEnd = originalCooldownEnd + extendedCooldownTime;
-                    // 不超过最大冷却时间
-                    newCooldownEnd = Math.min(newCooldownEnd, currentTick + ShieldManager.getShieldMaxWaitTime(player));
-                    
-                    // 更新冷却开始时间（相当于延长冷却），确保不小于原始冷却开始时间
-                    int newCooldownStart = newCooldownEnd - ShieldManager.getShieldRebuildWaitTime(player);
-                    SHIELD_COOLDOWN_START.put(playerId, Math.max(newCooldownStart, cooldownStartTick));
+                if (state.isInCooldown()) {
+                    extendCooldown(player, state, damage, currentTick);
                 } else {
                     // 开始新的护盾冷却
-                    SHIELD_COOLDOWN_START.put(playerId, currentTick);
+                    state.setCooldownStart(currentTick);
                     // 清除可能的重构状态
-                    SHIELD_REBUILD_START.remove(playerId);
-                    SHIELD_REBUILD_INITIAL.remove(playerId);
+                    state.clearRebuild();
                 }
                 // 标记冷却逻辑已处理
                 cooldownProcessed = true;
@@ -506,45 +470,59 @@ public class ShieldEvent {
                 int builtInCooldownTicks = ShieldManager.getShieldZeroShieldCooldownDelay(player);
                 
                 // 检查是否在内置冷却时间内
-                if (!LAST_COOLDOWN_TRIGGER.containsKey(playerId) || 
-                    currentTick - LAST_COOLDOWN_TRIGGER.get(playerId) >= builtInCooldownTicks) {
+                if (!state.hasLastCooldownTrigger() || 
+                    currentTick - state.getLastCooldownTrigger() >= builtInCooldownTicks) {
                     
                     // 如果正在护盾冷却中，延长冷却时间；否则开始新的冷却
-                    if (SHIELD_COOLDOWN_START.containsKey(playerId)) {
-                        int cooldownStartTick = SHIELD_COOLDOWN_START.get(playerId);
-                        int originalCooldownEnd = cooldownStartTick + ShieldManager.getShieldRebuildWaitTime(player);
-                        
-                        // 基于伤害值计算冷却延长时间：基础值 * (提升倍数 ^ 伤害值)
-                        int extendedCooldownTime = (int) (ShieldManager.getShieldWaitTimeExtensionOnHurt(player) * Math.pow(ShieldManager.getShieldCooldownExtensionMultiplier(player), damage));
-                        
-                        // 确保延长时间至少为基础值
-                        extendedCooldownTime = Math.max(extendedCooldownTime, ShieldManager.getShieldWaitTimeExtensionOnHurt(player));
-                        
-                        // 计算新的冷却结束时间：原始冷却结束时间 + 新的冷却延长时间
-                        int newCooldownEnd = originalCooldownEnd + extendedCooldownTime;
-                        // 不超过最大冷却时间
-                        newCooldownEnd = Math.min(newCooldownEnd, currentTick + ShieldManager.getShieldMaxWaitTime(player));
-                        
-                        // 更新冷却开始时间（相当于延长冷却），确保不小于原始冷却开始时间
-                        int newCooldownStart = newCooldownEnd - ShieldManager.getShieldRebuildWaitTime(player);
-                        SHIELD_COOLDOWN_START.put(playerId, Math.max(newCooldownStart, cooldownStartTick));
+                    if (state.isInCooldown()) {
+                        extendCooldown(player, state, damage, currentTick);
                     } else {
                         // 开始新的护盾冷却
-                        SHIELD_COOLDOWN_START.put(playerId, currentTick);
+                        state.setCooldownStart(currentTick);
                     }
                     // 清除可能的重构状态
-                    SHIELD_REBUILD_START.remove(playerId);
-                    SHIELD_REBUILD_INITIAL.remove(playerId);
+                    state.clearRebuild();
                     // 标记冷却逻辑已处理
                     cooldownProcessed = true;
                     
                     // 更新最后一次触发冷却的时间
-                    LAST_COOLDOWN_TRIGGER.put(playerId, currentTick);
+                    state.setLastCooldownTrigger(currentTick);
+                    
+                    // 护盾值没有变化，需要单独同步新的冷却时间，否则客户端的冷却条会提前走完
+                    sendShieldUpdate(player, state);
                 }
             }
         }
     }
 
+    /**
+     * 受到伤害时延长正在进行的护盾冷却
+     * 冷却延长时间 = 基础值 * (提升倍数 ^ 伤害值)，且新的冷却结束时间不超过最大冷却时间
+     * @param player 玩家对象
+     * @param state 玩家护盾状态（必须处于冷却中）
+     * @param damage 原始伤害值
+     * @param currentTick 当前刻数
+     */
+    private static void extendCooldown(Player player, ShieldState state, float damage, int currentTick) {
+        int cooldownStartTick = state.getCooldownStart();
+        int originalCooldownEnd = cooldownStartTick + ShieldManager.getShieldRebuildWaitTime(player);
+        
+        // 基于伤害值计算冷却延长时间：基础值 * (提升倍数 ^ 伤害值)
+        int extendedCooldownTime = (int) (ShieldManager.getShieldWaitTimeExtensionOnHurt(player) * Math.pow(ShieldManager.getShieldCooldownExtensionMultiplier(player), damage));
+        
+        // 确保延长时间至少为基础值
+        extendedCooldownTime = Math.max(extendedCooldownTime, ShieldManager.getShieldWaitTimeExtensionOnHurt(player));
+        
+        // 计算新的冷却结束时间：原始冷却结束时间 + 新的冷却延长时间
+        int newCooldownEnd = originalCooldownEnd + extendedCooldownTime;
+        // 不超过最大冷却时间
+        newCooldownEnd = Math.min(newCooldownEnd, currentTick + ShieldManager.getShieldMaxWaitTime(player));
+        
+        // 更新冷却开始时间（相当于延长冷却），确保不小于原始冷却开始时间
+        int newCooldownStart = newCooldownEnd - ShieldManager.getShieldRebuildWaitTime(player);
+        state.setCooldownStart(Math.max(newCooldownStart, cooldownStartTick));
+    }
+
     // ========== 2. 伤害事件监听（用于处理无护盾时的伤害） ==========
     @SubscribeEvent
     public void onLivingDamage(LivingDamageEvent event) {
@@ -564,31 +542,20 @@ public class ShieldEvent {
             return;
         }
 
-        UUID playerId = player.getUUID();
-        int currentTick = player.tickCount;
-        
-        // 检查玩家是否处于无敌时间内，如果是，直接取消伤害事件
-        if (INVULNERABILITY_END.containsKey(playerId)) {
-            int invulnerabilityEnd = INVULNERABILITY_END.get(playerId);
-            if (currentTick <= invulnerabilityEnd) {
-                event.setCanceled(true); // 完全取消伤害事件
-                return;
-            }
+        ShieldState state = getState(player);
+        if (state == null) {
+            return;
         }
+        int currentTick = player.tickCount;
         
         // 检查玩家是否处于无敌时间内，如果是，直接取消伤害事件
-        if (INVULNERABILITY_END.containsKey(playerId)) {
-            int invulnerabilityEnd = INVULNERABILITY_END.get(playerId);
-            if (currentTick <= invulnerabilityEnd) {
-                event.setCanceled(true); // 完全取消伤害事件
-                return;
-            }
+        if (state.hasInvulnerability() && currentTick <= state.getInvulnerabilityEnd()) {
+            event.setCanceled(true); // 完全取消伤害事件
+            return;
         }
         
         // 检查玩家是否有护盾值或正在重构，如果有，不处理伤害（由onLivingAttack处理）
-        int currentShield = PLAYER_SHIELD.getOrDefault(playerId, 0);
-        boolean isRebuilding = SHIELD_REBUILD_START.containsKey(playerId);
-        if (currentShield > 0 || isRebuilding) {
+        if (state.getShield() > 0 || state.isRebuilding()) {
             event.setCanceled(true);
             return;
         }
@@ -597,71 +564,90 @@ public class ShieldEvent {
         // 这里不再重复处理，避免冷却时间被延长两次
     }
 
-    // ========== 2. 玩家Tick事件监听 ==========
-    @SubscribeEvent
-    public void onPlayerTick(TickEvent.PlayerTickEvent event) {
-        // 获取玩家对象
-        Player player = event.player;
-
-        // 只在服务端的结束阶段执行
-        if (player.level().isClientSide() || event.phase != TickEvent.Phase.END) {
+    // ========== 2. 玩家护盾tick ==========
+    /**
+     * 处理玩家护盾的初始化、自然恢复、冷却和重构
+     * 由 ShieldTickDispatcher 在服务端每个玩家tick结束时调用，护盾状态和激活的护盾物品只解析一次
+     * @param player 玩家对象
+     * @param state 玩家护盾状态
+     * @param activeShield 当前激活的护盾物品，末影箱没有护盾物品时为null
+     * @param shieldChanged 本tick末影箱内容或激活的护盾物品是否发生变化（由分发器在解析护盾物品前判断）
+     */
+    public static void tickShield(Player player, ShieldState state, ShieldItemGy activeShield, boolean shieldChanged) {
+        // 空闲玩家（护盾已满或没有护盾、没有任何计时器）在护盾状态或末影箱内容变化前不需要处理
+        if (shieldChanged) {
+            state.setIdle(false);
+            state.setUnshielded(false);
+        } else if (state.isIdle()) {
             return;
         }
 
-        // 如果玩家末影箱没有护盾物品，清空护盾数据
-        if (!hasEnderShield(player)) {
-            UUID playerId = player.getUUID();
-            PLAYER_SHIELD.remove(playerId);
-            SHIELD_COOLDOWN_START.remove(playerId);
-            SHIELD_REBUILD_START.remove(playerId);
-            SHIELD_REBUILD_INITIAL.remove(playerId);
-            // 清理玩家NBT中的护盾值
-            player.getPersistentData().putInt("gy_trinket:shield_value", 0);
-            // 发送护盾值更新到客户端（0护盾和0最大护盾值，用于隐藏HUD）
-            if (!player.level().isClientSide() && player instanceof ServerPlayer serverPlayer) {
-                ShieldUpdatePacket.sendToPlayer(ModMessages.INSTANCE, new ShieldUpdatePacket(0, 0, 0, 0, false, "", 0.0F), serverPlayer);
+        // 冷却、重构、无敌刻数有变化时重新安排计时器，到期由时间轮回调处理
+        if (state.isTimersDirty() && player instanceof ServerPlayer serverPlayer) {
+            state.setTimersDirty(false);
+            updateShieldTimers(serverPlayer, state);
+        }
+
+        // 如果玩家末影箱没有护盾物品，清空护盾数据（随能力一起保存为0护盾值）
+        if (activeShield == null) {
+            // 只在护盾数据刚被清空时同步一次（0护盾和0最大护盾值，用于隐藏HUD）
+            if (state.isInitialized() || state.getShield() != 0) {
+                state.reset();
+                sendShieldUpdate(player, state);
+            }
+            // 计时器已全部取消后进入空闲的无护盾状态，之后由 ShieldTickDispatcher 直接跳过，直到末影箱内容变化
+            if (!state.isTimersDirty()) {
+                state.setIdle(true);
+                state.setUnshielded(true);
             }
             return;
         }
 
-        UUID playerId = player.getUUID();
         // 如果玩家没有护盾数据，初始化为0护盾值，然后立即开始冷却
-        if (!PLAYER_SHIELD.containsKey(playerId)) {
-            PLAYER_SHIELD.put(playerId, 0);
+        if (!state.isInitialized()) {
+            state.reset();
+            state.setInitialized(true);
             // 开始冷却计时
-            SHIELD_COOLDOWN_START.put(playerId, player.tickCount);
+            state.setCooldownStart(player.tickCount);
             // 发送护盾值更新到客户端，包括冷却信息
-            sendShieldUpdate(player);
+            sendShieldUpdate(player, state);
         }
         
-        int currentShield = PLAYER_SHIELD.get(playerId);
-        int maxShield = (int)ShieldManager.getMaxShield(player);
+        int currentShield = state.getShield();
+        // 护盾物品绑定的配置快照
+        Config.ShieldConfig config = activeShield.getShieldConfig();
+        int maxShield = (int) activeShield.getMaxShield();
         int maxShieldScaled = maxShield * 100;
         
         // 如果当前护盾值超过新的最大护盾值，将其限制为新的最大值
         if (currentShield > maxShieldScaled) {
-            PLAYER_SHIELD.put(playerId, maxShieldScaled);
-            sendShieldUpdate(player);
+            state.setShield(maxShieldScaled);
+            sendShieldUpdate(player, state);
         }
         
         // 检查配置是否已重载，如果是则立即发送更新到客户端
         if (configReloaded) {
-            sendShieldUpdate(player);
+            sendShieldUpdate(player, state);
         }
 
         // 如果护盾已满，清空所有状态标记
         if (currentShield >= maxShieldScaled) {
-            SHIELD_COOLDOWN_START.remove(playerId);
-            SHIELD_REBUILD_START.remove(playerId);
-            SHIELD_REBUILD_INITIAL.remove(playerId);
-            // 发送更新到客户端，确保护盾满时冷却计时被清空
-            sendShieldUpdate(player);
+            // 只在冷却或重构标记被清空时发送更新到客户端，确保护盾满时冷却计时被清空
+            if (state.isInCooldown() || state.isRebuilding()) {
+                state.clearCooldown();
+                state.clearRebuild();
+                sendShieldUpdate(player, state);
+            }
             
             // 在处理完所有玩家后重置配置重载标记
             if (configReloaded) {
                 configReloaded = false;
             }
             
+            // 护盾已满且计时器已全部取消后进入空闲状态，直到护盾值或末影箱内容变化
+            if (!state.isTimersDirty()) {
+                state.setIdle(true);
+            }
             return;
         }
 
@@ -675,10 +661,10 @@ public class ShieldEvent {
         
         // ========== 自然恢复效果 ==========
         // 只要护盾值不为零且未满，按照配置的间隔和百分比恢复，不受冷却和等待限制影响
-        if (currentTick % ShieldManager.getShieldNormalRegenInterval(player) == 0 && currentShield > 0 && currentShield < maxShieldScaled) {
+        if (currentTick % config.shieldNormalRegenInterval == 0 && currentShield > 0 && currentShield < maxShieldScaled) {
             // 计算恢复量：当前最大护盾值 × 配置的恢复百分比（放大100倍存储）
             // 先计算为double类型，以便判断是否大于0但小于1
-            double regenAmountDouble = maxShieldScaled * (ShieldManager.getShieldNormalRegenPercentage(player) / 100.0);
+            double regenAmountDouble = maxShieldScaled * (config.shieldNormalRegenPercentage / 100.0);
             int regenAmount = (int)regenAmountDouble;
             
             // 如果恢复量大于0但小于1，则至少恢复1点护盾值
@@ -688,16 +674,18 @@ public class ShieldEvent {
             
             int newShield = Math.min(currentShield + regenAmount, maxShieldScaled);
             
-            // 强制更新护盾值，确保恢复效果可见
-            PLAYER_SHIELD.put(playerId, newShield);
-            sendShieldUpdate(player);
+            // 更新护盾值，确保恢复效果可见
+            if (newShield != currentShield) {
+                state.setShield(newShield);
+                sendShieldUpdate(player, state);
+            }
         }
         
         // ========== 护盾重构逻辑 ==========
         // 1. 检查是否正在进行护盾重构
-        if (SHIELD_REBUILD_START.containsKey(playerId)) {
-            int rebuildStartTick = SHIELD_REBUILD_START.get(playerId);
-            int rebuildDuration = ShieldManager.getShieldRebuildDuration(player);
+        if (state.isRebuilding()) {
+            int rebuildStartTick = state.getRebuildStart();
+            int rebuildDuration = config.shieldRebuildDuration;
             
             if (currentTick - rebuildStartTick <= rebuildDuration) {
                 // 正在重构中
@@ -707,138 +695,222 @@ public class ShieldEvent {
                 
                 // 计算当前应该恢复的护盾值
                 int elapsedTicks = currentTick - rebuildStartTick;
-                int initialShield = SHIELD_REBUILD_INITIAL.getOrDefault(playerId, 0);
+                int initialShield = state.getRebuildInitial();
                 int newShield = initialShield + (regenRate * elapsedTicks);
                 newShield = Math.min(newShield, maxShieldScaled);
                 
                 // 更新护盾值
                 if (newShield != currentShield) {
-                    PLAYER_SHIELD.put(playerId, newShield);
-                    // 重构期间每1刻更新一次客户端，流畅度优先毕竟只持续很短时间
-                    if (currentTick % 1 == 0) {
-                        sendShieldUpdate(player);
+                    state.setShield(newShield);
+                    // 客户端根据重构开始时同步的起始值和持续时间自行推算护盾值，
+                    // 只有旧数据包不包含重构信息，才需要每次变化都更新客户端
+                    if (Config.useLegacySyncPacket) {
+                        sendShieldUpdate(player, state);
                     }
                 }
-            } else {
-                // 重构完成，确保护盾值为最大值（放大后）
-                if (currentShield != maxShieldScaled) {
-                    PLAYER_SHIELD.put(playerId, maxShieldScaled);
-                    sendShieldUpdate(player);
-                }
-                // 清除重构状态
-                SHIELD_REBUILD_START.remove(playerId);
-                SHIELD_REBUILD_INITIAL.remove(playerId);
-                SHIELD_COOLDOWN_START.remove(playerId);
             }
+            // 重构完成由时间轮回调 onRebuildTimer 处理
             return; // 重构期间不执行其他恢复逻辑，包括伤害事件处理
         }
         
-        // 2. 检查是否正在护盾冷却中
-        boolean isInCooldown = false;
-        if (SHIELD_COOLDOWN_START.containsKey(playerId)) {
-            isInCooldown = true;
-            int cooldownStartTick = SHIELD_COOLDOWN_START.get(playerId);
-            
-            if (currentTick - cooldownStartTick >= ShieldManager.getShieldRebuildWaitTime(player)) {
-                // 冷却时间结束，开始护盾重构
-                SHIELD_REBUILD_START.put(playerId, currentTick);
-                SHIELD_REBUILD_INITIAL.put(playerId, currentShield);
-                SHIELD_COOLDOWN_START.remove(playerId);
-                isInCooldown = false;
-                sendShieldUpdate(player); // 发送冷却结束和重构开始的更新
-            } else {
-                // 在冷却期间，每5刻更新一次客户端，平衡流畅度和性能
-                if (currentTick % 5 == 0) {
-                    sendShieldUpdate(player);
-                }
+        // 2. 检查是否正在护盾冷却中（冷却结束、开始重构由时间轮回调 onCooldownTimer 处理）
+        if (state.isInCooldown()) {
+            // 客户端根据冷却开始时同步的已冷却时间自行推算进度，
+            // 只有使用旧数据包时才每5刻更新一次客户端
+            if (Config.useLegacySyncPacket && currentTick % 5 == 0) {
+                sendShieldUpdate(player, state);
             }
-        } else if (currentShield < maxShieldScaled && !SHIELD_REBUILD_START.containsKey(playerId)) {
+        } else if (currentShield < maxShieldScaled) {
             // 3. 如果护盾值不满且不在冷却或重构状态，开始冷却计时
-            SHIELD_COOLDOWN_START.put(playerId, currentTick);
-            sendShieldUpdate(player); // 发送冷却开始的更新
+            state.setCooldownStart(currentTick);
+            sendShieldUpdate(player, state); // 发送冷却开始的更新
         }
     }
 
-    // ========== 3. 玩家退出事件监听 ==========
-    @SubscribeEvent
-    public void onPlayerLogout(PlayerEvent.PlayerLoggedOutEvent event) {
-        // 从事件中获取玩家实体
-        Player player = (Player) event.getEntity();
-        // 获取玩家UUID
-        UUID playerId = player.getUUID();
-        
-        // 保存护盾值到玩家NBT数据中（持久化存储）
-        if (PLAYER_SHIELD.containsKey(playerId)) {
-            int shieldValue = PLAYER_SHIELD.get(playerId);
-            // 只有当护盾值不为零时才保存，避免死亡时保存零护盾值
-            if (shieldValue > 0) {
-                player.getPersistentData().putInt("gy_trinket:shield_value", shieldValue);
-            } else {
-                // 如果护盾值为零，保存0护盾值
-                player.getPersistentData().putInt("gy_trinket:shield_value", 0);
-            }
+    /**
+     * 根据护盾状态中的冷却、重构、无敌刻数重新安排计时器
+     * @param player 服务器玩家
+     * @param state 玩家护盾状态
+     */
+    private static void updateShieldTimers(ServerPlayer player, ShieldState state) {
+        if (state.isInCooldown()) {
+            ShieldTimerWheel.schedule(player, state.getCooldownTimer(), state.getCooldownStart() + ShieldManager.getShieldRebuildWaitTime(player));
+        } else {
+            ShieldTimerWheel.cancel(state.getCooldownTimer());
         }
-        
-        // 清理所有临时数据
-        SHIELD_COOLDOWN_START.remove(playerId);
-        SHIELD_REBUILD_START.remove(playerId);
-        SHIELD_REBUILD_INITIAL.remove(playerId);
-        INVULNERABILITY_END.remove(playerId);
-        LAST_COOLDOWN_TRIGGER.remove(playerId);
+        if (state.isRebuilding()) {
+            ShieldTimerWheel.schedule(player, state.getRebuildTimer(), state.getRebuildStart() + ShieldManager.getShieldRebuildDuration(player) + 1);
+        } else {
+            ShieldTimerWheel.cancel(state.getRebuildTimer());
+        }
+        if (state.hasInvulnerability()) {
+            ShieldTimerWheel.schedule(player, state.getInvulnerabilityTimer(), state.getInvulnerabilityEnd() + 1);
+        } else {
+            ShieldTimerWheel.cancel(state.getInvulnerabilityTimer());
+        }
+    }
+
+    /**
+     * 时间轮回调：护盾冷却结束，开始护盾重构
+     * @param player 服务器玩家
+     * @param state 玩家护盾状态
+     */
+    public static void onCooldownTimer(ServerPlayer player, ShieldState state) {
+        // 重构期间冷却不会结束（重构完成时一并清除）
+        if (!state.isInCooldown() || state.isRebuilding()) {
+            return;
+        }
+
+        int currentTick = player.tickCount;
+        int cooldownEnd = state.getCooldownStart() + ShieldManager.getShieldRebuildWaitTime(player);
+        // 冷却时间被延长或配置已变化，按新的结束时间重新安排
+        if (currentTick < cooldownEnd) {
+            ShieldTimerWheel.schedule(player, state.getCooldownTimer(), cooldownEnd);
+            return;
+        }
+
+        // 护盾已满或末影箱没有护盾物品时，由玩家tick清空护盾状态
+        int currentShield = state.getShield();
+        ShieldItemGy activeShield = ShieldManager.getActiveShieldItem(player);
+        if (activeShield == null || currentShield >= (int) activeShield.getMaxShield() * 100) {
+            return;
+        }
+
+        // 冷却时间结束，开始护盾重构
+        state.startRebuild(currentTick, currentShield);
+        state.clearCooldown();
+        sendShieldUpdate(player, state); // 发送冷却结束和重构开始的更新
+
+        activeShield.getShieldEffect().onRebuildStart(activeShield, player);
+    }
+
+    /**
+     * 时间轮回调：护盾重构完成
+     * @param player 服务器玩家
+     * @param state 玩家护盾状态
+     */
+    public static void onRebuildTimer(ServerPlayer player, ShieldState state) {
+        if (!state.isRebuilding()) {
+            return;
+        }
+
+        int rebuildEnd = state.getRebuildStart() + ShieldManager.getShieldRebuildDuration(player);
+        // 配置已变化，按新的持续时间重新安排
+        if (player.tickCount <= rebuildEnd) {
+            ShieldTimerWheel.schedule(player, state.getRebuildTimer(), rebuildEnd + 1);
+            return;
+        }
+
+        // 末影箱没有护盾物品时，由玩家tick清空护盾状态
+        ShieldItemGy activeShield = ShieldManager.getActiveShieldItem(player);
+        if (activeShield == null) {
+            return;
+        }
+
+        // 重构完成，确保护盾值为最大值（放大后）
+        state.setShield((int) activeShield.getMaxShield() * 100);
+        // 清除重构状态
+        state.clearRebuild();
+        state.clearCooldown();
+        // 发送重构结束的更新，校正客户端推算的护盾值
+        sendShieldUpdate(player, state);
+
+        activeShield.getShieldEffect().onRebuildComplete(activeShield, player);
     }
 
-    // ========== 4. 玩家加入事件监听 ==========
+    /**
+     * 时间轮回调：无敌时间结束
+     * @param player 服务器玩家
+     * @param state 玩家护盾状态
+     */
+    public static void onInvulnerabilityTimer(ServerPlayer player, ShieldState state) {
+        if (!state.hasInvulnerability()) {
+            return;
+        }
+
+        int invulnerabilityEnd = state.getInvulnerabilityEnd();
+        if (player.tickCount <= invulnerabilityEnd) {
+            ShieldTimerWheel.schedule(player, state.getInvulnerabilityTimer(), invulnerabilityEnd + 1);
+            return;
+        }
+
+        // 无敌时间结束，移除无敌状态
+        state.clearInvulnerability();
+    }
+
+    // ========== 3. 玩家加入事件监听 ==========
+    // 护盾值已随护盾能力从玩家NBT中加载，退出时也随玩家数据一起保存
     @SubscribeEvent
     public void onPlayerJoin(PlayerEvent.PlayerLoggedInEvent event) {
         Player player = (Player) event.getEntity();
-        UUID playerId = player.getUUID();
+        ShieldState state = getState(player);
+        if (state == null) {
+            return;
+        }
         
-        // 从玩家NBT数据中加载护盾值
-        int savedShield = player.getPersistentData().getInt("gy_trinket:shield_value");
+        // 迁移旧版本保存在玩家持久化NBT中的护盾值
+        CompoundTag persistentData = player.getPersistentData();
+        if (persistentData.contains(LEGACY_SHIELD_VALUE_KEY)) {
+            state.setShield(Math.max(0, persistentData.getInt(LEGACY_SHIELD_VALUE_KEY)));
+            persistentData.remove(LEGACY_SHIELD_VALUE_KEY);
+        }
         
-        // 如果有保存的护盾值，检查是否有护盾物品，如果没有则不使用保存值
+        // 如果有保存的护盾值，检查是否有护盾物品，如果没有则不使用保存值（初始化为0护盾值）
+        int savedShield = state.getShield();
+        state.reset();
         if (savedShield > 0 && hasEnderShield(player)) {
-            PLAYER_SHIELD.put(playerId, savedShield);
-        } else {
-            // 初始化为0护盾值
-            PLAYER_SHIELD.put(playerId, 0);
+            state.setShield(savedShield);
         }
+        state.setInitialized(true);
         
         // 发送护盾值更新到客户端，确保HUD正确显示
-        sendShieldUpdate(player);
+        sendShieldUpdate(player, state);
     }
     
-    // ========== 5. 玩家重生事件监听 ==========
+    // ========== 4. 玩家重生事件监听 ==========
     @SubscribeEvent
     public void onPlayerRespawn(PlayerEvent.PlayerRespawnEvent event) {
         Player player = (Player) event.getEntity();
-        UUID playerId = player.getUUID();
-        
-        // 重生时重置所有护盾相关状态
-        // 1. 初始化为0护盾值
-        PLAYER_SHIELD.put(playerId, 0);
+        ShieldState state = getState(player);
+        if (state == null) {
+            return;
+        }
         
-        // 2. 清除所有状态标记
-        SHIELD_COOLDOWN_START.remove(playerId);
-        SHIELD_REBUILD_START.remove(playerId);
-        SHIELD_REBUILD_INITIAL.remove(playerId);
-        INVULNERABILITY_END.remove(playerId);
+        // 死亡重生时新实体上已是全新状态：0护盾值，且不带任何冷却、重构、无敌标记
+        // 从末地返回时沿用旧实体的状态（均在 ShieldCapability.onPlayerClone 中处理），这里只需标记初始化
+        state.setInitialized(true);
         
-        // 3. 重置玩家NBT数据中的护盾值为0
-        player.getPersistentData().putInt("gy_trinket:shield_value", 0);
+        // 发送护盾值更新到客户端，确保HUD正确显示
+        sendShieldUpdate(player, state);
+    }
+
+    // ========== 5. 玩家切换维度事件监听 ==========
+    // 普通的维度切换沿用同一个服务端玩家实体（已同步状态仍有效），但客户端会创建新的本地玩家（护盾能力为空），
+    // 需要使已同步状态失效并退出空闲状态，重新发送完整的护盾状态
+    @SubscribeEvent
+    public void onPlayerChangedDimension(PlayerEvent.PlayerChangedDimensionEvent event) {
+        Player player = event.getEntity();
+        ShieldState state = getState(player);
+        if (state == null) {
+            return;
+        }
         
-        // 4. 发送护盾值更新到客户端，确保HUD正确显示
-        sendShieldUpdate(player);
+        state.getSyncState().invalidate();
+        state.setIdle(false);
+        sendShieldUpdate(player, state);
     }
 
-    // ========== 5. 辅助方法 ==========
+    // ========== 6. 辅助方法 ==========
     /**
      * 在反射时触发冷却延迟效果
      * @param player 玩家对象
      * @param damage 伤害值
      */
     protected static void triggerReflectCooldown(Player player, float damage) {
-        UUID playerId = player.getUUID();
+        ShieldState state = getOrCreateState(player);
+        if (state == null) {
+            return;
+        }
         int currentTick = player.tickCount;
         
         // 基于伤害值计算冷却延长时间：基础值 * (提升倍数 ^ 伤害值)
@@ -847,9 +919,9 @@ public class ShieldEvent {
         // 确保延长时间至少为基础值
         extendedCooldownTime = Math.max(extendedCooldownTime, ShieldManager.getShieldWaitTimeExtensionOnHurt(player));
         
-        if (SHIELD_COOLDOWN_START.containsKey(playerId)) {
+        if (state.isInCooldown()) {
             // 获取当前冷却的开始时间
-            int cooldownStartTick = SHIELD_COOLDOWN_START.get(playerId);
+            int cooldownStartTick = state.getCooldownStart();
             // 计算原始冷却结束时间
             int originalCooldownEnd = cooldownStartTick + ShieldManager.getShieldRebuildWaitTime(player);
             // 计算剩余冷却时间
@@ -863,10 +935,10 @@ public class ShieldEvent {
             
             // 更新冷却开始时间，确保不小于当前时间
             int newCooldownStart = newCooldownEnd - ShieldManager.getShieldRebuildWaitTime(player);
-            SHIELD_COOLDOWN_START.put(playerId, Math.max(newCooldownStart, currentTick));
+            state.setCooldownStart(Math.max(newCooldownStart, currentTick));
         } else {
             // 没有冷却时，直接开始新的冷却
-            SHIELD_COOLDOWN_START.put(playerId, currentTick);
+            state.setCooldownStart(currentTick);
         }
     }
     
@@ -876,20 +948,7 @@ public class ShieldEvent {
      * @return 是否拥有末影箱护盾物品
      */
     public static boolean hasEnderShield(Player player) {
-        // 获取玩家的末影箱库存
-        PlayerEnderChestContainer enderChest = player.getEnderChestInventory();
-        if (enderChest == null) {
-            return false;
-        }
-
-        // 遍历末影箱所有格子，检查是否有自定义护盾物品
-        for (int i = 0; i < enderChest.getContainerSize(); i++) {
-            ItemStack stack = enderChest.getItem(i);
-            // 判断物品是否是我们的自定义护盾类型（ShieldItemGy）
-            if (!stack.isEmpty() && stack.getItem() instanceof com.gy_mod.gy_trinket.item.ShieldItemGy) {
-                return true;
-            }
-        }
-        return false;
+        // 使用缓存的末影箱护盾栏位，末影箱内容变化时才重新遍历
+        return ShieldManager.hasEnderShield(player);
     }
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package com.gy_mod.gy_trinket;
 
 import com.gy_mod.gy_trinket.block.ModBlocks;
+import com.gy_mod.gy_trinket.capability.shield.ShieldCapability;
 import com.gy_mod.gy_trinket.client.ClientSetup;
 import com.gy_mod.gy_trinket.event.ShieldEvent;
 import com.gy_mod.gy_trinket.event.ReflectShieldEvent;
@@ -8,6 +9,11 @@ import com.gy_mod.gy_trinket.event.FireRingShieldEvent;
 import com.gy_mod.gy_trinket.event.AmplifierShieldEvent;
 import com.gy_mod.gy_trinket.item.ModCreativeModeTabs;
 import com.gy_mod.gy_trinket.item.ModItems;
+import com.gy_mod.gy_trinket.shield.ShieldNetworkManager;
+import com.gy_mod.gy_trinket.shield.ShieldTickDispatcher;
+import com.gy_mod.gy_trinket.shield.FireRingScheduler;
+import com.gy_mod.gy_trinket.shield.ShieldTimerWheel;
+import com.gy_mod.gy_trinket.shield.ReflectedFireballTracker;
 
 import net.minecraftforge.api.distmarker.Dist;
 import net.minecraftforge.common.MinecraftForge;
@@ -48,13 +54,24 @@ public class gy_trinket
         ModCreativeModeTabs.register(modEventBus);
         // 3. 注册方块
         ModBlocks.register(modEventBus);
-
+        // 注册护盾能力
+        ShieldCapability.register(modEventBus);
 
         // 4. 注册护盾事件
         ShieldEvent.register();
         ReflectShieldEvent.register();
         FireRingShieldEvent.register();
         AmplifierShieldEvent.register();
+        // 护盾tick分发（唯一的玩家tick监听）
+        ShieldTickDispatcher.register();
+        // 护盾状态同步（tick结束时统一发送）
+        ShieldNetworkManager.register();
+        // 护盾冷却、重构、无敌时间的到期计时器
+        ShieldTimerWheel.register();
+        // 火环触发调度（错开触发刻、每刻目标预算）
+        FireRingScheduler.register();
+        // 反射烈焰弹数量上限和合并
+        ReflectedFireballTracker.register();
 
         // 5. 客户端初始化（仅在客户端执行）
         if (FMLEnvironment.dist == Dist.CLIENT) {
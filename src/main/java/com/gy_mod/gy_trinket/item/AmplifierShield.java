@@ -38,10 +38,18 @@ public class AmplifierShield extends ShieldItemGy {
                 public void onEquip(ShieldItemGy shield, Player player) {}
 
                 @Override
-                public void onUnequip(ShieldItemGy shield, Player player) {}
+                public void onUnequip(ShieldItemGy shield, Player player) {
+                    // 卸下增幅护盾时清除所有伤害加成
+                    AmplifierShieldEvent.onAmplifierUnequip(player);
+                }
 
                 @Override
-                public void tickEffect(ShieldItemGy shield, Player player, float currentShield, float maxShield) {}
+                public void tickEffect(ShieldItemGy shield, Player player, float currentShield, float maxShield) {
+                    // 伤害加成和护盾消耗只在服务端处理
+                    if (!player.level().isClientSide()) {
+                        AmplifierShieldEvent.tickAmplifier(shield, player, currentShield, maxShield);
+                    }
+                }
             }
         );
     }
@@ -1,6 +1,7 @@
 package com.gy_mod.gy_trinket.item;
 
 import com.gy_mod.gy_trinket.Config;
+import com.gy_mod.gy_trinket.event.FireRingShieldEvent;
 import com.gy_mod.gy_trinket.shield.effect.ShieldEffect;
 import net.minecraft.network.chat.Component;
 import net.minecraft.world.damagesource.DamageSource;
@@ -37,7 +38,10 @@ public class FireRingShield extends ShieldItemGy {
                 public void onUnequip(ShieldItemGy shield, Player player) {}
 
                 @Override
-                public void tickEffect(ShieldItemGy shield, Player player, float currentShield, float maxShield) {}
+                public void tickEffect(ShieldItemGy shield, Player player, float currentShield, float maxShield) {
+                    // 服务端伤害附近生物，客户端生成火环粒子
+                    FireRingShieldEvent.tickFireRing(shield, player, currentShield);
+                }
             }
         );
     }
@@ -1,6 +1,7 @@
 package com.gy_mod.gy_trinket.item;
 
 import com.gy_mod.gy_trinket.Config;
+import com.gy_mod.gy_trinket.Config.ShieldConfig;
 import com.gy_mod.gy_trinket.shield.effect.ShieldEffect;
 import net.minecraft.network.chat.Component;
 import net.minecraft.world.item.Item;
@@ -11,6 +12,7 @@ import net.minecraftforge.registries.ForgeRegistries;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * 自定义护盾物品基类
@@ -28,6 +30,11 @@ public abstract class ShieldItemGy extends Item {
     private final int baseNormalRegenInterval;
     private final int baseInvulnerabilityDuration;
     
+    // 缓存的物品registry name（首次访问时解析，避免每次都创建新的字符串）
+    private String registryId;
+    // 绑定的护盾配置快照（配置加载/重载时由Config整体替换）
+    private volatile ShieldConfig shieldConfig;
+    
     /**
      * 完整构造函数，用于创建不同类型的护盾，设置不同的基础属性和效果
      * @param properties 物品属性
@@ -68,13 +75,46 @@ public abstract class ShieldItemGy extends Item {
              shieldEffect);
     }
     
+    /**
+     * 获取物品的registry name（如 gy_trinket:shield_gy）
+     * @return 物品的registry name
+     */
+    public String getRegistryId() {
+        String id = registryId;
+        if (id == null) {
+            id = ForgeRegistries.ITEMS.getKey(this).toString();
+            registryId = id;
+        }
+        return id;
+    }
+    
+    /**
+     * 获取该护盾绑定的配置快照
+     * @return 护盾配置，尚未绑定时从当前配置中解析并绑定
+     */
+    public ShieldConfig getShieldConfig() {
+        ShieldConfig config = shieldConfig;
+        if (config == null) {
+            config = Config.getShieldConfigOrDefault(getRegistryId());
+            shieldConfig = config;
+        }
+        return config;
+    }
+    
+    /**
+     * 绑定新的护盾配置快照（配置加载或重载时调用）
+     * @param shieldConfigs 新的护盾配置映射
+     */
+    public void bindShieldConfig(Map<String, ShieldConfig> shieldConfigs) {
+        shieldConfig = Config.getShieldConfigOrDefault(shieldConfigs, getRegistryId());
+    }
+    
     /**
      * 获取护盾的最大护盾值
      * @return 最大护盾值
      */
     public float getMaxShield() {
-        String itemId = ForgeRegistries.ITEMS.getKey(this).toString();
-        return Config.getShieldConfigOrDefault(itemId).maxShield;
+        return getShieldConfig().maxShield;
     }
     
     /**
@@ -82,8 +122,7 @@ public abstract class ShieldItemGy extends Item {
      * @return 重构等待时间（刻）
      */
     public int getRebuildWaitTime() {
-        String itemId = ForgeRegistries.ITEMS.getKey(this).toString();
-        return Config.getShieldConfigOrDefault(itemId).shieldRebuildWaitTime;
+        return getShieldConfig().shieldRebuildWaitTime;
     }
     
     /**
@@ -91,8 +130,7 @@ public abstract class ShieldItemGy extends Item {
      * @return 自然恢复百分比
      */
     public double getNormalRegenPercentage() {
-        String itemId = ForgeRegistries.ITEMS.getKey(this).toString();
-        return Config.getShieldConfigOrDefault(itemId).shieldNormalRegenPercentage;
+        return getShieldConfig().shieldNormalRegenPercentage;
     }
     
     /**
@@ -100,8 +138,7 @@ public abstract class ShieldItemGy extends Item {
      * @return 自然恢复间隔（刻）
      */
     public int getNormalRegenInterval() {
-        String itemId = ForgeRegistries.ITEMS.getKey(this).toString();
-        return Config.getShieldConfigOrDefault(itemId).shieldNormalRegenInterval;
+        return getShieldConfig().shieldNormalRegenInterval;
     }
     
     /**
@@ -109,8 +146,7 @@ public abstract class ShieldItemGy extends Item {
      * @return 无敌持续时间（刻）
      */
     public int getInvulnerabilityDuration() {
-        String itemId = ForgeRegistries.ITEMS.getKey(this).toString();
-        return Config.getShieldConfigOrDefault(itemId).shieldInvulnerabilityDuration;
+        return getShieldConfig().shieldInvulnerabilityDuration;
     }
     
     /**
@@ -11,7 +11,7 @@ import net.minecraftforge.network.simple.SimpleChannel;
  */
 public class ModMessages {
     // 网络通信通道协议版本（用于版本兼容检查）
-    private static final String PROTOCOL_VERSION = "1.0";
+    private static final String PROTOCOL_VERSION = "1.4";
     
     /**
      * 网络通道实例
@@ -41,5 +41,23 @@ public class ModMessages {
                 ShieldUpdatePacket::decode,   // 数据包反序列化方法
                 ShieldUpdatePacket::handle    // 数据包处理方法
         );
+        
+        // 注册紧凑护盾同步数据包（增量编码）
+        INSTANCE.registerMessage(
+                1,                           // 数据包唯一ID
+                ShieldSyncPacket.class,       // 数据包类
+                ShieldSyncPacket::encode,     // 数据包序列化方法
+                ShieldSyncPacket::decode,     // 数据包反序列化方法
+                ShieldSyncPacket::handle      // 数据包处理方法
+        );
+        
+        // 注册护盾破裂粒子数据包（客户端按种子生成粒子）
+        INSTANCE.registerMessage(
+                2,                               // 数据包唯一ID
+                ShieldBreakBurstPacket.class,     // 数据包类
+                ShieldBreakBurstPacket::encode,   // 数据包序列化方法
+                ShieldBreakBurstPacket::decode,   // 数据包反序列化方法
+                ShieldBreakBurstPacket::handle    // 数据包处理方法
+        );
     }
 }
@@ -0,0 +1,83 @@
+package com.gy_mod.gy_trinket.network;
+
+import com.gy_mod.gy_trinket.shield.particle.ShieldParticleGenerator;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraftforge.network.NetworkEvent;
+import net.minecraftforge.network.PacketDistributor;
+
+import java.util.function.Supplier;
+
+/**
+ * 护盾破裂粒子数据包
+ * 护盾破裂时只发送一次爆发的位置、随机种子和强度，粒子由客户端按种子确定性地生成，
+ * 不再为每个粒子单独发送一个原版粒子数据包
+ */
+public class ShieldBreakBurstPacket {
+    // 爆发中心位置
+    private final double x;
+    private final double y;
+    private final double z;
+    // 粒子随机种子（同一次爆发在所有客户端上生成相同的粒子）
+    private final long seed;
+    // 爆发强度（粒子数量的倍数，1.0为默认的40个粒子）
+    private final float intensity;
+
+    public ShieldBreakBurstPacket(double x, double y, double z, long seed, float intensity) {
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.seed = seed;
+        this.intensity = intensity;
+    }
+
+    /**
+     * 编码方法
+     * 将数据包的数据写入字节缓冲区
+     * @param packet 要编码的数据包
+     * @param buffer 字节缓冲区
+     */
+    public static void encode(ShieldBreakBurstPacket packet, FriendlyByteBuf buffer) {
+        buffer.writeDouble(packet.x);
+        buffer.writeDouble(packet.y);
+        buffer.writeDouble(packet.z);
+        buffer.writeLong(packet.seed);
+        buffer.writeFloat(packet.intensity);
+    }
+
+    /**
+     * 解码方法
+     * 从字节缓冲区读取数据并创建数据包
+     * @param buffer 字节缓冲区
+     * @return 解码后的数据包
+     */
+    public static ShieldBreakBurstPacket decode(FriendlyByteBuf buffer) {
+        double x = buffer.readDouble();
+        double y = buffer.readDouble();
+        double z = buffer.readDouble();
+        long seed = buffer.readLong();
+        float intensity = buffer.readFloat();
+        return new ShieldBreakBurstPacket(x, y, z, seed, intensity);
+    }
+
+    /**
+     * 处理方法
+     * 在客户端主线程生成护盾破裂粒子
+     * @param packet 接收到的数据包
+     * @param contextSupplier 网络事件上下文提供者
+     */
+    public static void handle(ShieldBreakBurstPacket packet, Supplier<NetworkEvent.Context> contextSupplier) {
+        NetworkEvent.Context context = contextSupplier.get();
+        context.enqueueWork(() -> ShieldParticleGenerator.spawnShieldBreakBurst(packet.x, packet.y, packet.z, packet.seed, packet.intensity));
+        context.setPacketHandled(true);
+    }
+
+    /**
+     * 发送数据包给玩家自身和所有追踪该玩家的客户端
+     * @param player 护盾破裂的玩家
+     * @param packet 要发送的数据包
+     */
+    public static void sendToTrackingAndSelf(ServerPlayer player, ShieldBreakBurstPacket packet) {
+        ModMessages.INSTANCE.send(PacketDistributor.TRACKING_ENTITY_AND_SELF.with(() -> player), packet);
+    }
+}
@@ -0,0 +1,334 @@
+package com.gy_mod.gy_trinket.network;
+
+import com.gy_mod.gy_trinket.capability.shield.hud.ShieldHudOverlay;
+import com.gy_mod.gy_trinket.item.ShieldItemGy;
+import com.gy_mod.gy_trinket.shield.particle.ShieldClientEffects;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.item.Item;
+import net.minecraftforge.network.NetworkDirection;
+import net.minecraftforge.network.NetworkEvent;
+import net.minecraftforge.network.simple.SimpleChannel;
+
+import java.util.function.Supplier;
+
+/**
+ * 紧凑护盾同步数据包
+ * 只发送相对上一次同步发生变化的字段：开头的VarInt位掩码标记哪些字段存在，
+ * 整数字段使用VarInt编码，护盾类型使用物品的数字registry id（仅在变化时发送）
+ * 重构开始时附带起始护盾值、持续时间和已重构时间，客户端据此自行推算重构进度，
+ * 服务端只在重构开始、结束或与推算值出现偏差时发送
+ * 护盾破裂、开始重构等事件只随发生后的第一次同步发送一次（服务端按事件编号去重），客户端只在状态转换时播放一次效果
+ * 旧的 ShieldUpdatePacket 仍保留，可通过配置切换回去
+ */
+public class ShieldSyncPacket {
+    // 位掩码：各字段是否存在
+    private static final int HAS_SHIELD = 1;
+    private static final int HAS_MAX_SHIELD = 1 << 1;
+    private static final int HAS_CURRENT_COOLDOWN = 1 << 2;
+    private static final int HAS_MAX_COOLDOWN = 1 << 3;
+    private static final int HAS_SHIELD_TYPE = 1 << 4;
+    private static final int HAS_DAMAGE_BONUS = 1 << 5;
+    // 位掩码：是否正在进行护盾重构（值本身放在掩码中，不占额外字节）
+    private static final int REBUILDING = 1 << 6;
+    // 位掩码：是否附带重构信息（起始护盾值、持续时间、已重构时间）
+    private static final int HAS_REBUILD = 1 << 7;
+    // 位掩码：是否附带护盾事件（事件位掩码）
+    private static final int HAS_EVENT = 1 << 8;
+
+    // 客户端上一次收到的完整护盾状态（只有本地玩家一个）
+    private static final SyncState CLIENT_STATE = new SyncState();
+
+    // 位掩码
+    private final int flags;
+    // 当前护盾值（放大100倍）
+    private final int shield;
+    // 最大护盾值
+    private final int maxShield;
+    // 当前冷却时间（刻）
+    private final int currentCooldown;
+    // 最大冷却时间（刻）
+    private final int maxCooldown;
+    // 护盾类型的数字registry id + 1（0表示没有护盾）
+    private final int shieldTypeId;
+    // 当前伤害提升百分比
+    private final float damageBonusPercentage;
+    // 重构开始时的护盾值（放大100倍）
+    private final int rebuildInitial;
+    // 重构持续时间（刻）
+    private final int rebuildDuration;
+    // 已重构时间（刻）
+    private final int rebuildElapsed;
+    // 自上一次同步以来发生的护盾事件（ShieldState.EVENT_* 位掩码）
+    private final int events;
+
+    private ShieldSyncPacket(int flags, int shield, int maxShield, int currentCooldown, int maxCooldown, int shieldTypeId, float damageBonusPercentage,
+                             int rebuildInitial, int rebuildDuration, int rebuildElapsed, int events) {
+        this.flags = flags;
+        this.shield = shield;
+        this.maxShield = maxShield;
+        this.currentCooldown = currentCooldown;
+        this.maxCooldown = maxCooldown;
+        this.shieldTypeId = shieldTypeId;
+        this.damageBonusPercentage = damageBonusPercentage;
+        this.rebuildInitial = rebuildInitial;
+        this.rebuildDuration = rebuildDuration;
+        this.rebuildElapsed = rebuildElapsed;
+        this.events = events;
+    }
+
+    /**
+     * 根据上一次同步的状态创建增量数据包，并将上一次同步的状态更新为当前值
+     * @param last 上一次同步到该玩家客户端的状态（首次同步时发送所有字段）
+     * @param shield 当前护盾值（放大100倍）
+     * @param maxShield 最大护盾值
+     * @param currentCooldown 当前冷却时间（刻）
+     * @param maxCooldown 最大冷却时间（刻）
+     * @param isRebuilding 是否正在进行护盾重构
+     * @param rebuildInitial 重构开始时的护盾值（放大100倍）
+     * @param rebuildDuration 重构持续时间（刻）
+     * @param rebuildElapsed 已重构时间（刻）
+     * @param shieldItem 当前激活的护盾物品，没有时为null
+     * @param damageBonusPercentage 当前伤害提升百分比
+     * @param eventId 最近一次护盾事件的编号（与上一次同步的编号相同时不再发送事件）
+     * @param events 自上一次同步以来发生的护盾事件（位掩码）
+     * @return 增量数据包，如果没有任何变化则返回null
+     */
+    public static ShieldSyncPacket createDelta(SyncState last, int shield, int maxShield, int currentCooldown, int maxCooldown,
+                                               boolean isRebuilding, int rebuildInitial, int rebuildDuration, int rebuildElapsed,
+                                               Item shieldItem, float damageBonusPercentage, int eventId, int events) {
+        int shieldTypeId = shieldItem == null ? 0 : BuiltInRegistries.ITEM.getId(shieldItem) + 1;
+        boolean full = !last.initialized;
+        int flags = isRebuilding ? REBUILDING : 0;
+
+        if (full || last.shield != shield) {
+            flags |= HAS_SHIELD;
+        }
+        if (full || last.maxShield != maxShield) {
+            flags |= HAS_MAX_SHIELD;
+        }
+        if (full || last.currentCooldown != currentCooldown) {
+            flags |= HAS_CURRENT_COOLDOWN;
+        }
+        if (full || last.maxCooldown != maxCooldown) {
+            flags |= HAS_MAX_COOLDOWN;
+        }
+        if (full || last.shieldTypeId != shieldTypeId) {
+            flags |= HAS_SHIELD_TYPE;
+        }
+        if (full || Float.compare(last.damageBonusPercentage, damageBonusPercentage) != 0) {
+            flags |= HAS_DAMAGE_BONUS;
+        }
+        // 重构刚开始、重构参数变化或护盾值需要校正时附带重构信息，让客户端重新开始推算
+        if (isRebuilding && (full || !last.rebuilding || (flags & HAS_SHIELD) != 0
+                || last.rebuildInitial != rebuildInitial || last.rebuildDuration != rebuildDuration)) {
+            flags |= HAS_REBUILD;
+        }
+        // 有新的护盾事件时附带事件
+        if (events != 0 && last.eventId != eventId) {
+            flags |= HAS_EVENT;
+        }
+
+        // 没有任何字段变化且重构状态相同时不需要发送
+        if (!full && (flags & ~REBUILDING) == 0 && last.rebuilding == isRebuilding) {
+            return null;
+        }
+
+        last.set(shield, maxShield, currentCooldown, maxCooldown, isRebuilding, shieldTypeId, damageBonusPercentage);
+        if ((flags & HAS_REBUILD) != 0) {
+            last.setRebuild(rebuildInitial, rebuildDuration);
+        }
+        last.eventId = eventId;
+        return new ShieldSyncPacket(flags, shield, maxShield, currentCooldown, maxCooldown, shieldTypeId, damageBonusPercentage,
+                rebuildInitial, rebuildDuration, rebuildElapsed, events);
+    }
+
+    /**
+     * 编码方法
+     * 将数据包的数据写入字节缓冲区，只写入位掩码中标记的字段
+     * @param packet 要编码的数据包
+     * @param buffer 字节缓冲区
+     */
+    public static void encode(ShieldSyncPacket packet, FriendlyByteBuf buffer) {
+        int flags = packet.flags;
+        buffer.writeVarInt(flags);
+        if ((flags & HAS_SHIELD) != 0) {
+            buffer.writeVarInt(packet.shield);
+        }
+        if ((flags & HAS_MAX_SHIELD) != 0) {
+            buffer.writeVarInt(packet.maxShield);
+        }
+        if ((flags & HAS_CURRENT_COOLDOWN) != 0) {
+            buffer.writeVarInt(packet.currentCooldown);
+        }
+        if ((flags & HAS_MAX_COOLDOWN) != 0) {
+            buffer.writeVarInt(packet.maxCooldown);
+        }
+        if ((flags & HAS_SHIELD_TYPE) != 0) {
+            buffer.writeVarInt(packet.shieldTypeId);
+        }
+        if ((flags & HAS_DAMAGE_BONUS) != 0) {
+            buffer.writeFloat(packet.damageBonusPercentage);
+        }
+        if ((flags & HAS_REBUILD) != 0) {
+            buffer.writeVarInt(packet.rebuildInitial);
+            buffer.writeVarInt(packet.rebuildDuration);
+            buffer.writeVarInt(packet.rebuildElapsed);
+        }
+        if ((flags & HAS_EVENT) != 0) {
+            buffer.writeByte(packet.events);
+        }
+    }
+
+    /**
+     * 解码方法
+     * 从字节缓冲区读取数据并创建数据包，未发送的字段为0
+     * @param buffer 字节缓冲区
+     * @return 解码后的数据包
+     */
+    public static ShieldSyncPacket decode(FriendlyByteBuf buffer) {
+        int flags = buffer.readVarInt();
+        int shield = (flags & HAS_SHIELD) != 0 ? buffer.readVarInt() : 0;
+        int maxShield = (flags & HAS_MAX_SHIELD) != 0 ? buffer.readVarInt() : 0;
+        int currentCooldown = (flags & HAS_CURRENT_COOLDOWN) != 0 ? buffer.readVarInt() : 0;
+        int maxCooldown = (flags & HAS_MAX_COOLDOWN) != 0 ? buffer.readVarInt() : 0;
+        int shieldTypeId = (flags & HAS_SHIELD_TYPE) != 0 ? buffer.readVarInt() : 0;
+        float damageBonusPercentage = (flags & HAS_DAMAGE_BONUS) != 0 ? buffer.readFloat() : 0.0F;
+        int rebuildInitial = 0;
+        int rebuildDuration = 0;
+        int rebuildElapsed = 0;
+        if ((flags & HAS_REBUILD) != 0) {
+            rebuildInitial = buffer.readVarInt();
+            rebuildDuration = buffer.readVarInt();
+            rebuildElapsed = buffer.readVarInt();
+        }
+        int events = 0;
+        if ((flags & HAS_EVENT) != 0) {
+            events = buffer.readUnsignedByte();
+        }
+        return new ShieldSyncPacket(flags, shield, maxShield, currentCooldown, maxCooldown, shieldTypeId, damageBonusPercentage,
+                rebuildInitial, rebuildDuration, rebuildElapsed, events);
+    }
+
+    /**
+     * 处理方法
+     * 在客户端将增量合并到上一次收到的完整状态上，然后按完整状态更新HUD和客户端护盾数据
+     * @param packet 接收到的数据包
+     * @param contextSupplier 网络事件上下文提供者
+     */
+    public static void handle(ShieldSyncPacket packet, Supplier<NetworkEvent.Context> contextSupplier) {
+        NetworkEvent.Context context = contextSupplier.get();
+        // 确保在客户端主线程处理更新操作
+        context.enqueueWork(() -> {
+            SyncState state = CLIENT_STATE;
+            int flags = packet.flags;
+            if ((flags & HAS_SHIELD) != 0) {
+                state.shield = packet.shield;
+            }
+            if ((flags & HAS_MAX_SHIELD) != 0) {
+                state.maxShield = packet.maxShield;
+            }
+            if ((flags & HAS_CURRENT_COOLDOWN) != 0) {
+                state.currentCooldown = packet.currentCooldown;
+            }
+            if ((flags & HAS_MAX_COOLDOWN) != 0) {
+                state.maxCooldown = packet.maxCooldown;
+            }
+            if ((flags & HAS_SHIELD_TYPE) != 0) {
+                state.shieldTypeId = packet.shieldTypeId;
+                // 护盾类型变化时才将数字id解析为registry name
+                Item item = packet.shieldTypeId == 0 ? null : BuiltInRegistries.ITEM.byId(packet.shieldTypeId - 1);
+                state.shieldType = item instanceof ShieldItemGy shieldItem ? shieldItem.getRegistryId() : "";
+            }
+            if ((flags & HAS_DAMAGE_BONUS) != 0) {
+                state.damageBonusPercentage = packet.damageBonusPercentage;
+            }
+            state.rebuilding = (flags & REBUILDING) != 0;
+            state.initialized = true;
+
+            // 重构期间由HUD根据重构信息自行推算护盾值，直到下一次校正
+            ShieldHudOverlay hud = ShieldHudOverlay.getInstance();
+            if (!state.rebuilding) {
+                hud.stopRebuildPrediction();
+            } else if ((flags & HAS_REBUILD) != 0) {
+                hud.startRebuildPrediction(packet.rebuildInitial, state.maxShield, packet.rebuildDuration, packet.rebuildElapsed);
+            }
+
+            ShieldUpdatePacket.applyOnClient(new ShieldUpdatePacket(state.shield / 100.0f, state.maxShield, state.currentCooldown,
+                    state.maxCooldown, state.rebuilding, state.shieldType, state.damageBonusPercentage));
+
+            // 护盾破裂、重构效果只在收到新的护盾事件时由客户端状态机按状态转换播放（服务端只发送一次新事件，客户端不再按编号去重）
+            int events = (flags & HAS_EVENT) != 0 ? packet.events : 0;
+            ShieldClientEffects.onSync(events, state.shield, state.rebuilding);
+        });
+        // 标记数据包已处理
+        context.setPacketHandled(true);
+    }
+
+    /**
+     * 重置客户端的护盾同步状态和效果状态机（退出世界或重生时调用）
+     * 服务端在玩家重新进入世界、重生或切换维度后会重新发送完整状态
+     */
+    public static void resetClientState() {
+        CLIENT_STATE.invalidate();
+        ShieldClientEffects.reset();
+    }
+
+    /**
+     * 静态方法：发送数据包给指定玩家
+     * @param channel 网络通道
+     * @param packet 要发送的数据包
+     * @param player 目标玩家
+     */
+    public static void sendToPlayer(SimpleChannel channel, ShieldSyncPacket packet, ServerPlayer player) {
+        // 使用PLAY_TO_CLIENT方向确保数据包发送到客户端
+        channel.sendTo(packet, player.connection.connection, NetworkDirection.PLAY_TO_CLIENT);
+    }
+
+    /**
+     * 已同步的护盾状态
+     * 服务端每个玩家保存一份（上一次发送给该玩家的值），客户端保存一份（上一次收到的完整值）
+     */
+    public static class SyncState {
+        // 是否已经同步过（未同步时发送所有字段）
+        private boolean initialized;
+        private int shield;
+        private int maxShield;
+        private int currentCooldown;
+        private int maxCooldown;
+        private boolean rebuilding;
+        private int shieldTypeId;
+        // 护盾类型的registry name（仅客户端使用）
+        private String shieldType = "";
+        private float damageBonusPercentage;
+        private int rebuildInitial;
+        private int rebuildDuration;
+        // 最近一次同步的护盾事件编号（仅服务端使用）
+        private int eventId;
+
+        private void set(int shield, int maxShield, int currentCooldown, int maxCooldown, boolean rebuilding, int shieldTypeId, float damageBonusPercentage) {
+            this.initialized = true;
+            this.shield = shield;
+            this.maxShield = maxShield;
+            this.currentCooldown = currentCooldown;
+            this.maxCooldown = maxCooldown;
+            this.rebuilding = rebuilding;
+            this.shieldTypeId = shieldTypeId;
+            this.damageBonusPercentage = damageBonusPercentage;
+        }
+
+        private void setRebuild(int rebuildInitial, int rebuildDuration) {
+            this.rebuildInitial = rebuildInitial;
+            this.rebuildDuration = rebuildDuration;
+        }
+
+        /**
+         * 使已同步的状态失效，下次同步时发送所有字段
+         */
+        public void invalidate() {
+            this.initialized = false;
+        }
+    }
+}
+
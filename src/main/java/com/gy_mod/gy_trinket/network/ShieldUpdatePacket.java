@@ -107,19 +107,13 @@ public class ShieldUpdatePacket {
         NetworkEvent.Context context = contextSupplier.get();
         // 确保在客户端主线程处理更新操作
         context.enqueueWork(() -> {
-            // 更新客户端HUD界面的护盾显示数据
-            ShieldHudOverlay.getInstance().updateShieldData(packet.currentShield, packet.maxShield, packet.currentCooldown, packet.maxCooldown, packet.damageBonusPercentage);
+            // 旧数据包不包含重构信息，重构期间每刻同步，不需要客户端推算
+            ShieldHudOverlay.getInstance().stopRebuildPrediction();
+            applyOnClient(packet);
+            
+            // 旧数据包不包含护盾事件，按每个数据包的状态播放效果
             // 如果正在重构，通知HUD处理粒子效果
             ShieldHudOverlay.getInstance().handleShieldRebuilding(packet.isRebuilding);
-            
-            // 关键修复：在客户端更新ShieldManager的护盾值，以便渲染层能够获取到正确的护盾值
-            Minecraft minecraft = Minecraft.getInstance();
-            if (minecraft.player != null) {
-                ShieldManager.setPlayerShield(minecraft.player, packet.currentShield);
-                // 存储激活的护盾类型信息到客户端ShieldManager
-                ShieldManager.setClientActiveShieldType(minecraft.player, packet.activeShieldType);
-            }
-            
             // 检查护盾是否破裂（护盾值变为0）
             if (packet.currentShield <= 0) {
                 // 在客户端生成护盾破裂粒子效果
@@ -130,6 +124,24 @@ public class ShieldUpdatePacket {
         context.setPacketHandled(true);
     }
 
+    /**
+     * 在客户端应用完整的护盾状态（旧数据包和紧凑同步数据包共用）
+     * 必须在客户端主线程调用
+     * @param packet 完整的护盾状态
+     */
+    static void applyOnClient(ShieldUpdatePacket packet) {
+        // 更新客户端HUD界面的护盾显示数据
+        ShieldHudOverlay.getInstance().updateShieldData(packet.currentShield, packet.maxShield, packet.currentCooldown, packet.maxCooldown, packet.damageBonusPercentage);
+        
+        // 关键修复：在客户端更新ShieldManager的护盾值，以便渲染层能够获取到正确的护盾值
+        Minecraft minecraft = Minecraft.getInstance();
+        if (minecraft.player != null) {
+            ShieldManager.setPlayerShield(minecraft.player, packet.currentShield);
+            // 存储激活的护盾类型信息到客户端ShieldManager
+            ShieldManager.setClientActiveShieldType(minecraft.player, packet.activeShieldType);
+        }
+    }
+
     /**
      * 静态方法：发送数据包给指定玩家
      * @param channel 网络通道
@@ -0,0 +1,173 @@
+package com.gy_mod.gy_trinket.shield;
+
+/**
+ * 增幅护盾的玩家状态
+ * 记录损失的护盾值、持续消耗的护盾值和伤害加成，跟随玩家的护盾状态保存，不再按UUID存放在全局Map中；
+ * 最多 MAX_BONUSES 个伤害加成，按创建顺序存放在固定长度的数组中，每刻的计时、累加和应用都不分配对象
+ */
+public class AmplifierState {
+    // 最大伤害加成数量
+    public static final int MAX_BONUSES = 5;
+    // 伤害加成持续时间（3秒 = 60tick）
+    public static final int BONUS_DURATION_TICKS = 60;
+    // 伤害加成开放期（1秒 = 20tick）
+    public static final int BONUS_OPEN_TICKS = 20;
+
+    // 尚未转换为伤害加成的损失护盾值
+    private float storedDamage;
+    // 累计持续消耗的护盾值
+    private float shieldConsumption;
+
+    // 每个伤害加成的数值
+    private final double[] amounts = new double[MAX_BONUSES];
+    // 每个伤害加成的剩余持续时间（刻）
+    private final int[] remainingTicks = new int[MAX_BONUSES];
+    // 每个伤害加成的剩余开放期（刻），开放期内的伤害加成可以继续累加，开放期结束后才应用
+    private final int[] remainingOpenTicks = new int[MAX_BONUSES];
+    // 每个伤害加成是否已应用
+    private final boolean[] applied = new boolean[MAX_BONUSES];
+    // 伤害加成数量
+    private int count;
+    // 已应用的伤害加成数值之和（缓存，伤害加成变化时更新）
+    private double appliedSum;
+    // 当前攻击力修饰符的数值（0表示没有修饰符）
+    private double modifierAmount;
+
+    // ========== 损失的护盾值 ==========
+    public float getStoredDamage() {
+        return storedDamage;
+    }
+
+    public void addStoredDamage(float damage) {
+        this.storedDamage += damage;
+    }
+
+    public void clearStoredDamage() {
+        this.storedDamage = 0.0F;
+    }
+
+    // ========== 持续消耗的护盾值 ==========
+    public float getShieldConsumption() {
+        return shieldConsumption;
+    }
+
+    public void addShieldConsumption(float consumption) {
+        this.shieldConsumption += consumption;
+    }
+
+    // ========== 伤害加成 ==========
+    public boolean hasBonuses() {
+        return count > 0;
+    }
+
+    /**
+     * 累加到开放期内的伤害加成，没有时创建新的伤害加成（已达到最大数量时忽略）
+     * @param amount 伤害加成数值
+     */
+    public void addBonus(double amount) {
+        for (int i = 0; i < count; i++) {
+            if (remainingOpenTicks[i] > 0) {
+                amounts[i] += amount;
+                return;
+            }
+        }
+        if (count < MAX_BONUSES) {
+            amounts[count] = amount;
+            remainingTicks[count] = BONUS_DURATION_TICKS;
+            remainingOpenTicks[count] = BONUS_OPEN_TICKS;
+            applied[count] = false;
+            count++;
+        }
+    }
+
+    /**
+     * 所有伤害加成计时减一刻，移除过期的伤害加成
+     */
+    public void tickBonuses() {
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            remainingTicks[i]--;
+            if (remainingOpenTicks[i] > 0) {
+                remainingOpenTicks[i]--;
+            }
+            if (remainingTicks[i] <= 0) {
+                continue;
+            }
+            if (kept != i) {
+                amounts[kept] = amounts[i];
+                remainingTicks[kept] = remainingTicks[i];
+                remainingOpenTicks[kept] = remainingOpenTicks[i];
+                applied[kept] = applied[i];
+            }
+            kept++;
+        }
+        if (kept != count) {
+            count = kept;
+            updateAppliedSum();
+        }
+    }
+
+    /**
+     * 标记所有开放期结束的伤害加成为已应用
+     */
+    public void applyClosedBonuses() {
+        boolean changed = false;
+        for (int i = 0; i < count; i++) {
+            if (!applied[i] && remainingOpenTicks[i] <= 0) {
+                applied[i] = true;
+                changed = true;
+            }
+        }
+        if (changed) {
+            updateAppliedSum();
+        }
+    }
+
+    /**
+     * 移除所有伤害加成和记录的损失护盾值
+     */
+    public void clearBonuses() {
+        count = 0;
+        appliedSum = 0.0;
+        storedDamage = 0.0F;
+    }
+
+    /**
+     * 已应用的伤害加成数值之和（缓存值）
+     */
+    public double getAppliedSum() {
+        return appliedSum;
+    }
+
+    /**
+     * 已应用的伤害加成合并后的修饰符数值
+     * 与每个伤害加成单独作为 MULTIPLY_TOTAL 修饰符的效果相同：(1 + a1) × (1 + a2) × ... - 1
+     */
+    public double getCombinedAmount() {
+        double multiplier = 1.0;
+        for (int i = 0; i < count; i++) {
+            if (applied[i]) {
+                multiplier *= 1.0 + amounts[i];
+            }
+        }
+        return multiplier - 1.0;
+    }
+
+    public double getModifierAmount() {
+        return modifierAmount;
+    }
+
+    public void setModifierAmount(double modifierAmount) {
+        this.modifierAmount = modifierAmount;
+    }
+
+    private void updateAppliedSum() {
+        double total = 0.0;
+        for (int i = 0; i < count; i++) {
+            if (applied[i]) {
+                total += amounts[i];
+            }
+        }
+        appliedSum = total;
+    }
+}
@@ -0,0 +1,110 @@
+package com.gy_mod.gy_trinket.shield;
+
+import com.gy_mod.gy_trinket.item.ShieldItemGy;
+import net.minecraft.world.Container;
+import net.minecraft.world.ContainerListener;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.inventory.PlayerEnderChestContainer;
+import net.minecraft.world.item.ItemStack;
+
+/**
+ * 末影箱护盾缓存类
+ * 缓存玩家末影箱中第一个护盾物品的栏位和物品，避免每次查询都遍历末影箱的所有栏位
+ * 通过监听末影箱内容变化（ContainerListener）使缓存失效，稳定状态下的查询为O(1)
+ */
+public class EnderShieldCache implements ContainerListener {
+    // 当前监听的末影箱（玩家实体克隆时末影箱可能被替换，需要重新绑定）
+    private PlayerEnderChestContainer container;
+    // 缓存是否有效
+    private boolean valid;
+    // 第一个护盾物品所在的栏位，没有护盾物品时为-1
+    private int slot = -1;
+    // 第一个护盾物品
+    private ItemStack stack = ItemStack.EMPTY;
+
+    /**
+     * 获取玩家末影箱内第一个护盾物品
+     * @param player 玩家对象
+     * @return 找到的第一个护盾物品，如果没有则返回null
+     */
+    public ItemStack getEnderShield(Player player) {
+        PlayerEnderChestContainer enderChest = player.getEnderChestInventory();
+        if (enderChest == null) {
+            detach();
+            return null;
+        }
+        if (enderChest != container) {
+            attach(enderChest);
+        }
+
+        // 缓存的物品被直接修改（如数量减为0）而没有触发容器变化时，同样需要重新查找
+        if (valid && (slot < 0 || (!stack.isEmpty() && container.getItem(slot) == stack))) {
+            return slot < 0 ? null : stack;
+        }
+
+        // 按栏位顺序遍历末影箱，找到第一个护盾物品
+        slot = findShieldSlot(container);
+        stack = slot < 0 ? ItemStack.EMPTY : container.getItem(slot);
+        valid = true;
+        return slot < 0 ? null : stack;
+    }
+
+    /**
+     * 缓存是否有效（末影箱内容变化后失效，直到下一次查询）
+     * @return 是否有效
+     */
+    public boolean isValid() {
+        return valid;
+    }
+
+    /**
+     * 末影箱内容变化时使缓存失效
+     * @param changed 发生变化的容器
+     */
+    @Override
+    public void containerChanged(Container changed) {
+        valid = false;
+    }
+
+    /**
+     * 停止监听当前末影箱（玩家实体被替换时调用，避免旧实体的缓存残留在末影箱的监听列表中）
+     */
+    public void detach() {
+        if (container != null) {
+            container.removeListener(this);
+            container = null;
+        }
+        invalidate();
+    }
+
+    /**
+     * 使缓存失效，下次查询时重新遍历末影箱
+     */
+    public void invalidate() {
+        valid = false;
+        slot = -1;
+        stack = ItemStack.EMPTY;
+    }
+
+    private void attach(PlayerEnderChestContainer enderChest) {
+        detach();
+        container = enderChest;
+        container.addListener(this);
+    }
+
+    /**
+     * 按栏位顺序查找末影箱内第一个护盾物品的栏位
+     * @param enderChest 末影箱
+     * @return 栏位索引，没有护盾物品时返回-1
+     */
+    public static int findShieldSlot(PlayerEnderChestContainer enderChest) {
+        for (int i = 0; i < enderChest.getContainerSize(); i++) {
+            ItemStack itemStack = enderChest.getItem(i);
+            // 检查物品是否是护盾物品（支持所有ShieldItemGy类型）
+            if (!itemStack.isEmpty() && itemStack.getItem() instanceof ShieldItemGy) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
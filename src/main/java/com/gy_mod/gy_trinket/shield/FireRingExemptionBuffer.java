@@ -0,0 +1,57 @@
+package com.gy_mod.gy_trinket.shield;
+
+/**
+ * 火环攻击豁免记录
+ * 每个装备火环护盾的玩家一份固定容量的环形缓冲区，按时间顺序记录玩家最近攻击的实体（实体网络id + 服务器刻），
+ * 火环不会伤害豁免时间内被玩家攻击过的实体；过期记录通过前移最旧记录的位置淘汰，不分配任何对象
+ * 记录数超过容量时覆盖最旧的记录
+ */
+public class FireRingExemptionBuffer {
+    // 容量（必须是2的幂）
+    private static final int CAPACITY = 32;
+    private static final int MASK = CAPACITY - 1;
+
+    // 被攻击实体的网络id
+    private final int[] entityIds = new int[CAPACITY];
+    // 攻击时的服务器刻
+    private final int[] ticks = new int[CAPACITY];
+    // 下一条记录写入的位置
+    private int head;
+    // 有效记录数（从head往前数）
+    private int size;
+
+    /**
+     * 记录玩家攻击了实体
+     * @param entityId 实体网络id
+     * @param tick 当前服务器刻
+     */
+    public void record(int entityId, int tick) {
+        entityIds[head] = entityId;
+        ticks[head] = tick;
+        head = (head + 1) & MASK;
+        if (size < CAPACITY) {
+            size++;
+        }
+    }
+
+    /**
+     * 检查实体是否在豁免时间内被玩家攻击过
+     * @param entityId 实体网络id
+     * @param currentTick 当前服务器刻
+     * @param exemptionTicks 豁免时间（刻）
+     * @return 是否处于豁免时间内
+     */
+    public boolean isExempt(int entityId, int currentTick, int exemptionTicks) {
+        // 记录按时间顺序写入，从最旧的记录开始淘汰超过豁免时间的记录
+        while (size > 0 && currentTick - ticks[(head - size) & MASK] > exemptionTicks) {
+            size--;
+        }
+
+        for (int i = 1; i <= size; i++) {
+            if (entityIds[(head - i) & MASK] == entityId) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
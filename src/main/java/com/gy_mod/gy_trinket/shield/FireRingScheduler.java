@@ -0,0 +1,152 @@
+package com.gy_mod.gy_trinket.shield;
+
+import com.gy_mod.gy_trinket.Config;
+import com.gy_mod.gy_trinket.capability.shield.ShieldCapability;
+import com.gy_mod.gy_trinket.event.FireRingShieldEvent;
+import com.gy_mod.gy_trinket.event.ShieldEvent;
+import com.gy_mod.gy_trinket.item.FireRingShield;
+import net.minecraft.util.Mth;
+import net.minecraft.world.entity.player.Player;
+import net.minecraftforge.common.MinecraftForge;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.server.ServerStoppedEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+
+import java.util.ArrayDeque;
+
+/**
+ * 火环调度类
+ * 按玩家实体id错开各玩家的火环触发刻，避免所有火环玩家在同一刻集中触发；
+ * 到达触发刻的玩家进入等待队列，服务器tick结束时按队列顺序（轮询）处理，每个服务器刻限制所有火环伤害的生物总数：
+ * 预算用完时未处理的玩家留在队首，下一刻优先处理；只处理了部分目标的玩家排到队尾，下一刻继续伤害本轮尚未伤害过的生物，
+ * 保证所有玩家和所有目标都会被轮流伤害（每次触发的目标数量上限仍然结束本轮，超出上限的生物本轮不再伤害）；
+ * 服务器卡顿（MSPT超过50）时按MSPT放大触发间隔，伤害按实际间隔（包括等待预算的时间）等比放大，保持每秒伤害不变
+ * 只在服务器主线程访问
+ */
+public class FireRingScheduler {
+    // 正常的每刻耗时（毫秒）
+    private static final float TARGET_MSPT = 50.0f;
+
+    // 当前触发间隔的放大倍数
+    private static int intervalScale = 1;
+    // 本刻剩余的目标预算
+    private static int remainingBudget = Integer.MAX_VALUE;
+    // 本轮触发尚未完成的玩家（按等待顺序）
+    private static final ArrayDeque<Player> WAITING = new ArrayDeque<>();
+
+    /**
+     * 注册事件
+     */
+    public static void register() {
+        MinecraftForge.EVENT_BUS.register(new FireRingScheduler());
+    }
+
+    // ========== 服务器tick开始时重置预算并根据MSPT计算间隔倍数，tick结束时处理等待队列 ==========
+    @SubscribeEvent
+    public void onServerTick(TickEvent.ServerTickEvent event) {
+        if (event.phase == TickEvent.Phase.START) {
+            float mspt = event.getServer().getAverageTickTime();
+            intervalScale = Mth.clamp(Mth.ceil(mspt / TARGET_MSPT), 1, Config.fireRingMaxIntervalScale);
+            remainingBudget = Config.fireRingTargetBudgetPerTick > 0 ? Config.fireRingTargetBudgetPerTick : Integer.MAX_VALUE;
+            return;
+        }
+
+        int serverTick = event.getServer().getTickCount();
+        // 只处理本刻开始时已在队列中的玩家，排到队尾的玩家下一刻再处理
+        int count = WAITING.size();
+        for (int i = 0; i < count && remainingBudget > 0; i++) {
+            Player player = WAITING.pollFirst();
+            ShieldState state = ShieldCapability.get(player);
+            if (state == null) {
+                continue;
+            }
+            // 玩家已离开、死亡、卸下火环护盾或护盾已破裂时放弃本轮触发
+            if (player.isRemoved() || !player.isAlive() || !(state.getEquippedShield() instanceof FireRingShield)
+                    || ShieldEvent.getPlayerShield(player) <= 0) {
+                state.setFireRingPending(false);
+                continue;
+            }
+
+            if (FireRingShieldEvent.runFireRing(player, state, serverTick)) {
+                // 本轮完成，记录等待的刻数用于下一轮补偿伤害
+                state.setFireRingPending(false);
+                state.setFireRingRoundDelay(serverTick - state.getFireRingLastTrigger());
+            } else {
+                WAITING.addLast(player);
+            }
+        }
+
+        // 本刻的目标索引不再使用，释放其中缓存的生物
+        FireRingTargetIndex.clearAll();
+    }
+
+    // ========== 服务器关闭时清空等待队列 ==========
+    @SubscribeEvent
+    public void onServerStopped(ServerStoppedEvent event) {
+        WAITING.clear();
+    }
+
+    /**
+     * 检查玩家的火环本刻是否需要开始新一轮触发
+     * @param player 玩家对象
+     * @param state 玩家护盾状态
+     * @param frequency 配置的火环触发频率（刻）
+     * @param serverTick 当前服务器刻
+     * @return 是否需要开始新一轮触发（上一轮尚未完成时返回false）
+     */
+    public static boolean isDue(Player player, ShieldState state, int frequency, int serverTick) {
+        if (state.isFireRingPending()) {
+            return false;
+        }
+        return Math.floorMod(serverTick + player.getId(), frequency * intervalScale) == 0;
+    }
+
+    /**
+     * 开始新一轮触发：计算本轮的伤害放大倍数并将玩家加入等待队列，在本刻结束时处理
+     * @param player 玩家对象
+     * @param state 玩家护盾状态
+     * @param frequency 配置的火环触发频率（刻）
+     * @param serverTick 当前服务器刻
+     */
+    public static void startRound(Player player, ShieldState state, int frequency, int serverTick) {
+        state.setFireRingRoundScale(getDamageScale(state, frequency, serverTick));
+        state.setFireRingLastTrigger(serverTick);
+        state.getFireRingRoundHits().clear();
+        state.setFireRingPending(true);
+        WAITING.addLast(player);
+    }
+
+    /**
+     * 计算火环伤害的放大倍数（实际触发间隔 / 配置的触发频率），保持每秒伤害不变
+     * 上限为当前间隔倍数加上上一轮等待预算的刻数，因此等待预算的时间也会补偿，
+     * 而长时间未触发（如卸下护盾）后重新触发时不会叠加伤害
+     * @param state 玩家护盾状态
+     * @param frequency 配置的火环触发频率（刻）
+     * @param serverTick 当前服务器刻
+     * @return 伤害放大倍数
+     */
+    private static float getDamageScale(ShieldState state, int frequency, int serverTick) {
+        if (!state.hasFireRingLastTrigger()) {
+            return 1.0f;
+        }
+        float elapsed = (float) (serverTick - state.getFireRingLastTrigger()) / frequency;
+        float maxScale = intervalScale + (float) state.getFireRingRoundDelay() / frequency;
+        return Mth.clamp(elapsed, 1.0f, maxScale);
+    }
+
+    /**
+     * 获取本刻剩余的目标预算
+     * @return 剩余可伤害的生物数量
+     */
+    public static int getRemainingBudget() {
+        return remainingBudget;
+    }
+
+    /**
+     * 消耗本刻的目标预算
+     * @param targets 本次触发伤害的生物数量
+     */
+    public static void consume(int targets) {
+        remainingBudget = Math.max(0, remainingBudget - targets);
+    }
+}
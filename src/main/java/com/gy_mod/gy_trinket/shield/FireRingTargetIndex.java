@@ -0,0 +1,166 @@
+package com.gy_mod.gy_trinket.shield;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.core.SectionPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.util.Mth;
+import net.minecraft.world.entity.LivingEntity;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.phys.AABB;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 火环目标空间索引
+ * 每个维度每tick一份，按区块段（16x16x16）划分格子，只保存非玩家的生物，
+ * 格子在第一次被查询时才填充（每次查询只对缺失的格子执行一次实体查询），同一tick内附近的多个火环玩家共享同一批格子，不再各自重复扫描实体，tick结束时清空
+ * 只在服务器主线程访问
+ */
+public class FireRingTargetIndex {
+    // 每个维度的索引
+    private static final Map<Level, FireRingTargetIndex> INDEXES = new HashMap<>();
+    // 查询时向外扩展的距离（与原版按区块段查找实体时的扩展距离一致，保证体积较大的生物不会被漏掉）
+    private static final double ENTITY_MARGIN = 2.0;
+
+    // 索引对应的游戏刻（与维度当前游戏刻不同时清空所有格子）
+    private long gameTime = Long.MIN_VALUE;
+    // 已填充的格子：区块段坐标 -> 位于该区块段内的非玩家生物
+    private final Long2ObjectOpenHashMap<List<LivingEntity>> cells = new Long2ObjectOpenHashMap<>();
+    // 本次查询中正在填充的格子（每次填充时复用）
+    private final Long2ObjectOpenHashMap<List<LivingEntity>> filling = new Long2ObjectOpenHashMap<>();
+    // 查询结果（每次查询时复用）
+    private final List<LivingEntity> result = new ArrayList<>();
+
+    /**
+     * 获取维度的火环目标索引
+     * @param level 服务端维度
+     * @return 该维度的索引（跨tick复用，格子在新的tick中重新填充）
+     */
+    public static FireRingTargetIndex get(ServerLevel level) {
+        FireRingTargetIndex index = INDEXES.get(level);
+        if (index == null) {
+            index = new FireRingTargetIndex();
+            INDEXES.put(level, index);
+        }
+        index.refresh(level.getGameTime());
+        return index;
+    }
+
+    /**
+     * 移除维度的索引（维度卸载时调用）
+     * @param level 维度
+     */
+    public static void remove(Level level) {
+        INDEXES.remove(level);
+    }
+
+    /**
+     * 清空所有维度已填充的格子和查询结果（服务器tick结束时调用）
+     * 格子只在本tick内有效，及时清空可以释放已被移除的生物，不必等到下一次查询或维度卸载
+     */
+    public static void clearAll() {
+        for (FireRingTargetIndex index : INDEXES.values()) {
+            index.cells.clear();
+            index.result.clear();
+        }
+    }
+
+    /**
+     * 查询碰撞箱与范围相交的所有存活的非玩家生物
+     * 返回的列表在下一次查询时会被清空复用，调用方需要在下一次查询前处理完毕
+     * @param level 服务端维度（必须是获取该索引时的维度）
+     * @param area 查询范围
+     * @return 范围内的非玩家生物
+     */
+    public List<LivingEntity> query(ServerLevel level, AABB area) {
+        result.clear();
+        int minX = SectionPos.blockToSectionCoord(Mth.floor(area.minX - ENTITY_MARGIN));
+        int minY = SectionPos.blockToSectionCoord(Mth.floor(area.minY - ENTITY_MARGIN));
+        int minZ = SectionPos.blockToSectionCoord(Mth.floor(area.minZ - ENTITY_MARGIN));
+        int maxX = SectionPos.blockToSectionCoord(Mth.floor(area.maxX + ENTITY_MARGIN));
+        int maxY = SectionPos.blockToSectionCoord(Mth.floor(area.maxY + ENTITY_MARGIN));
+        int maxZ = SectionPos.blockToSectionCoord(Mth.floor(area.maxZ + ENTITY_MARGIN));
+
+        fillMissingCells(level, minX, minY, minZ, maxX, maxY, maxZ);
+
+        for (int x = minX; x <= maxX; x++) {
+            for (int y = minY; y <= maxY; y++) {
+                for (int z = minZ; z <= maxZ; z++) {
+                    for (LivingEntity entity : cells.get(SectionPos.asLong(x, y, z))) {
+                        // 本tick内已死亡（如被其他火环杀死）的生物不再作为目标
+                        if (entity.isAlive() && entity.getBoundingBox().intersects(area)) {
+                            result.add(entity);
+                        }
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 进入新的游戏刻时清空所有格子
+     * @param currentGameTime 维度当前游戏刻
+     */
+    private void refresh(long currentGameTime) {
+        if (gameTime != currentGameTime) {
+            gameTime = currentGameTime;
+            cells.clear();
+        }
+    }
+
+    /**
+     * 填充查询范围内尚未填充的格子
+     * 只对所有缺失格子的外包范围执行一次实体查询，再按生物所在的区块段分到各个格子
+     * （原版按范围查找实体时会向外扩展2格，逐个格子查询会重复扫描相邻的区块段）
+     */
+    private void fillMissingCells(ServerLevel level, int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        int missingMinX = Integer.MAX_VALUE;
+        int missingMinY = Integer.MAX_VALUE;
+        int missingMinZ = Integer.MAX_VALUE;
+        int missingMaxX = Integer.MIN_VALUE;
+        int missingMaxY = Integer.MIN_VALUE;
+        int missingMaxZ = Integer.MIN_VALUE;
+        filling.clear();
+        for (int x = minX; x <= maxX; x++) {
+            for (int y = minY; y <= maxY; y++) {
+                for (int z = minZ; z <= maxZ; z++) {
+                    long key = SectionPos.asLong(x, y, z);
+                    if (!cells.containsKey(key)) {
+                        filling.put(key, new ArrayList<>());
+                        missingMinX = Math.min(missingMinX, x);
+                        missingMinY = Math.min(missingMinY, y);
+                        missingMinZ = Math.min(missingMinZ, z);
+                        missingMaxX = Math.max(missingMaxX, x);
+                        missingMaxY = Math.max(missingMaxY, y);
+                        missingMaxZ = Math.max(missingMaxZ, z);
+                    }
+                }
+            }
+        }
+        if (filling.isEmpty()) {
+            return;
+        }
+
+        AABB bounds = new AABB(
+                SectionPos.sectionToBlockCoord(missingMinX), SectionPos.sectionToBlockCoord(missingMinY), SectionPos.sectionToBlockCoord(missingMinZ),
+                SectionPos.sectionToBlockCoord(missingMaxX + 1), SectionPos.sectionToBlockCoord(missingMaxY + 1), SectionPos.sectionToBlockCoord(missingMaxZ + 1));
+        // 插入时过滤掉玩家，只保留位置在缺失格子内的生物，保证每个生物只属于一个格子
+        for (LivingEntity entity : level.getEntitiesOfClass(LivingEntity.class, bounds, entity -> !(entity instanceof Player))) {
+            long key = SectionPos.asLong(
+                    SectionPos.blockToSectionCoord(entity.getBlockX()),
+                    SectionPos.blockToSectionCoord(entity.getBlockY()),
+                    SectionPos.blockToSectionCoord(entity.getBlockZ()));
+            List<LivingEntity> cell = filling.get(key);
+            if (cell != null) {
+                cell.add(entity);
+            }
+        }
+        cells.putAll(filling);
+        filling.clear();
+    }
+}
@@ -0,0 +1,146 @@
+package com.gy_mod.gy_trinket.shield;
+
+import com.gy_mod.gy_trinket.Config;
+import com.gy_mod.gy_trinket.event.ReflectShieldEvent.NoFireLargeFireball;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.level.Level;
+import net.minecraftforge.common.MinecraftForge;
+import net.minecraftforge.event.level.LevelEvent;
+import net.minecraftforge.event.server.ServerStoppedEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * 反射烈焰弹追踪类
+ * 按维度记录存活的反射烈焰弹（按生成顺序），限制每个维度同时存在的数量：
+ * 同一玩家在同一刻内的多次反射合并为一个伤害更高的烈焰弹，超出上限时移除最早生成的烈焰弹
+ * 同时统计生成、合并、回收的次数，便于监控
+ * 只在服务器主线程访问
+ */
+public class ReflectedFireballTracker {
+    // 每个维度的追踪数据
+    private static final Map<Level, ReflectedFireballTracker> TRACKERS = new HashMap<>();
+
+    // 累计生成的反射烈焰弹数量
+    private static long spawnedCount;
+    // 累计合并到已有烈焰弹的反射次数
+    private static long mergedCount;
+    // 累计因超出上限被移除的烈焰弹数量
+    private static long recycledCount;
+
+    // 存活的反射烈焰弹（按生成顺序，最早的在队首）
+    private final ArrayDeque<NoFireLargeFireball> active = new ArrayDeque<>();
+    // 每个玩家最近生成的烈焰弹（用于合并同一刻内的反射）
+    private final Map<UUID, NoFireLargeFireball> lastByOwner = new HashMap<>();
+
+    /**
+     * 注册事件
+     */
+    public static void register() {
+        MinecraftForge.EVENT_BUS.register(new ReflectedFireballTracker());
+    }
+
+    /**
+     * 尝试将反射合并到玩家本刻已生成的烈焰弹中
+     * @param level 服务端维度
+     * @param player 执行反射的玩家
+     * @param originalDamage 原弹射物的伤害值
+     * @param shieldFactor 当前护盾值的10%因子
+     * @return 是否已合并（合并后不需要再生成新的烈焰弹）
+     */
+    public static boolean tryMerge(ServerLevel level, Player player, float originalDamage, double shieldFactor) {
+        ReflectedFireballTracker tracker = TRACKERS.get(level);
+        if (tracker == null) {
+            return false;
+        }
+        NoFireLargeFireball last = tracker.lastByOwner.get(player.getUUID());
+        if (last == null || !last.isAlive() || last.getSpawnGameTime() != level.getGameTime()) {
+            return false;
+        }
+        last.mergeReflection(originalDamage, shieldFactor);
+        mergedCount++;
+        return true;
+    }
+
+    /**
+     * 记录新生成的反射烈焰弹，超出维度上限时移除最早生成的烈焰弹
+     * @param level 服务端维度
+     * @param player 执行反射的玩家
+     * @param fireball 新生成的烈焰弹（已加入世界）
+     */
+    public static void track(ServerLevel level, Player player, NoFireLargeFireball fireball) {
+        ReflectedFireballTracker tracker = TRACKERS.computeIfAbsent(level, key -> new ReflectedFireballTracker());
+        fireball.setSpawnGameTime(level.getGameTime());
+        tracker.active.addLast(fireball);
+        tracker.lastByOwner.put(player.getUUID(), fireball);
+        spawnedCount++;
+
+        int limit = Config.reflectShieldMaxFireballsPerLevel;
+        while (limit > 0 && tracker.active.size() > limit) {
+            // discard 会通过 untrack 将其移出队列
+            NoFireLargeFireball oldest = tracker.active.peekFirst();
+            oldest.discard();
+            if (tracker.active.peekFirst() == oldest) {
+                tracker.active.pollFirst();
+            }
+            recycledCount++;
+        }
+    }
+
+    /**
+     * 移除烈焰弹的记录（烈焰弹离开世界时调用）
+     * @param fireball 离开世界的烈焰弹
+     */
+    public static void untrack(NoFireLargeFireball fireball) {
+        ReflectedFireballTracker tracker = TRACKERS.get(fireball.level());
+        if (tracker == null) {
+            return;
+        }
+        tracker.active.remove(fireball);
+        tracker.lastByOwner.values().remove(fireball);
+    }
+
+    /**
+     * 获取维度中存活的反射烈焰弹数量
+     * @param level 维度
+     * @return 存活数量
+     */
+    public static int getActiveCount(Level level) {
+        ReflectedFireballTracker tracker = TRACKERS.get(level);
+        return tracker == null ? 0 : tracker.active.size();
+    }
+
+    public static long getSpawnedCount() {
+        return spawnedCount;
+    }
+
+    public static long getMergedCount() {
+        return mergedCount;
+    }
+
+    public static long getRecycledCount() {
+        return recycledCount;
+    }
+
+    // ========== 维度卸载时移除追踪数据 ==========
+    @SubscribeEvent
+    public void onLevelUnload(LevelEvent.Unload event) {
+        if (event.getLevel() instanceof ServerLevel level) {
+            TRACKERS.remove(level);
+        }
+    }
+
+    // ========== 服务器关闭时清空追踪数据和统计 ==========
+    @SubscribeEvent
+    public void onServerStopped(ServerStoppedEvent event) {
+        TRACKERS.clear();
+        spawnedCount = 0;
+        mergedCount = 0;
+        recycledCount = 0;
+    }
+}
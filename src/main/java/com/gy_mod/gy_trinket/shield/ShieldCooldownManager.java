@@ -1,21 +1,15 @@
 package com.gy_mod.gy_trinket.shield;
 
 import com.gy_mod.gy_trinket.Config;
+import com.gy_mod.gy_trinket.capability.shield.ShieldCapability;
 import net.minecraft.world.entity.player.Player;
 import net.minecraftforge.event.entity.living.LivingDamageEvent;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.UUID;
-
 /**
  * 护盾冷却管理类，负责处理护盾的冷却时间和内置冷却机制
  */
 public class ShieldCooldownManager {
-    // 存储玩家的护盾冷却时间开始时间：UUID -> 开始冷却的刻数
-    private static final Map<UUID, Integer> SHIELD_COOLDOWN_START = new HashMap<>();
-    // 存储玩家最后一次触发护盾冷却的刻数（用于防止高频触发）
-    private static final Map<UUID, Integer> LAST_COOLDOWN_TRIGGER = new HashMap<>();
+    // 冷却开始刻数、最后一次触发冷却的刻数保存在玩家的 ShieldState 能力中
 
     /**
      * 处理护盾受到伤害时的冷却逻辑
@@ -24,14 +18,17 @@ public class ShieldCooldownManager {
      * @param shouldStartCooldown 是否应该开始冷却
      */
     public static void handleShieldDamage(Player player, float damage, boolean shouldStartCooldown) {
-        UUID playerId = player.getUUID();
+        ShieldState state = ShieldCapability.get(player);
+        if (state == null) {
+            return;
+        }
         int currentTick = player.tickCount;
         int maxShieldScaled = ShieldManager.getMaxShieldScaled();
 
         if (shouldStartCooldown) {
             // 如果正在护盾冷却中，延长冷却时间
-            if (SHIELD_COOLDOWN_START.containsKey(playerId)) {
-                int cooldownStartTick = SHIELD_COOLDOWN_START.get(playerId);
+            if (state.isInCooldown()) {
+                int cooldownStartTick = state.getCooldownStart();
                 int originalCooldownEnd = cooldownStartTick + Config.shieldRebuildWaitTime;
                 int remainingCooldown = Math.max(0, originalCooldownEnd - currentTick);
 
@@ -48,12 +45,12 @@ public class ShieldCooldownManager {
 
                 // 更新冷却开始时间（相当于延长冷却），确保不小于当前时间
                 int newCooldownStart = newCooldownEnd - Config.shieldRebuildWaitTime;
-                SHIELD_COOLDOWN_START.put(playerId, Math.max(newCooldownStart, currentTick));
+                state.setCooldownStart(Math.max(newCooldownStart, currentTick));
             } else {
                 // 开始新的护盾冷却
-                SHIELD_COOLDOWN_START.put(playerId, currentTick);
+                state.setCooldownStart(currentTick);
                 // 清除可能的重构状态
-                ShieldRegenManager.clearRebuildState(player);
+                state.clearRebuild();
             }
         }
     }
@@ -73,7 +70,6 @@ public class ShieldCooldownManager {
      * @param event 伤害事件
      */
     public static void handleDamageCooldown(Player player, LivingDamageEvent event) {
-        UUID playerId = player.getUUID();
         int currentTick = player.tickCount;
         int currentShield = ShieldManager.getPlayerShieldScaled(player);
         
@@ -99,12 +95,12 @@ public class ShieldCooldownManager {
      * @return 是否正在冷却中
      */
     public static boolean isInCooldown(Player player) {
-        UUID playerId = player.getUUID();
-        if (!SHIELD_COOLDOWN_START.containsKey(playerId)) {
+        ShieldState state = ShieldCapability.get(player);
+        if (state == null || !state.isInCooldown()) {
             return false;
         }
 
-        int cooldownStartTick = SHIELD_COOLDOWN_START.get(playerId);
+        int cooldownStartTick = state.getCooldownStart();
         int currentTick = player.tickCount;
         return currentTick - cooldownStartTick < Config.shieldRebuildWaitTime;
     }
@@ -115,8 +111,8 @@ public class ShieldCooldownManager {
      * @return 冷却开始时间刻数，未冷却时返回-1
      */
     public static int getCooldownStartTick(Player player) {
-        UUID playerId = player.getUUID();
-        return SHIELD_COOLDOWN_START.getOrDefault(playerId, -1);
+        ShieldState state = ShieldCapability.get(player);
+        return state == null || !state.isInCooldown() ? -1 : state.getCooldownStart();
     }
 
     /**
@@ -124,10 +120,12 @@ public class ShieldCooldownManager {
      * @param player 玩家对象
      */
     public static void startCooldown(Player player) {
-        UUID playerId = player.getUUID();
-        int currentTick = player.tickCount;
-        SHIELD_COOLDOWN_START.put(playerId, currentTick);
-        ShieldRegenManager.clearRebuildState(player);
+        ShieldState state = ShieldCapability.get(player);
+        if (state == null) {
+            return;
+        }
+        state.setCooldownStart(player.tickCount);
+        state.clearRebuild();
     }
 
     /**
@@ -135,8 +133,10 @@ public class ShieldCooldownManager {
      * @param player 玩家对象
      */
     public static void endCooldown(Player player) {
-        UUID playerId = player.getUUID();
-        SHIELD_COOLDOWN_START.remove(playerId);
+        ShieldState state = ShieldCapability.get(player);
+        if (state != null) {
+            state.clearCooldown();
+        }
     }
 
     /**
@@ -144,8 +144,10 @@ public class ShieldCooldownManager {
      * @param player 玩家对象
      */
     public static void clearPlayerCooldownData(Player player) {
-        UUID playerId = player.getUUID();
-        SHIELD_COOLDOWN_START.remove(playerId);
-        LAST_COOLDOWN_TRIGGER.remove(playerId);
+        ShieldState state = ShieldCapability.get(player);
+        if (state != null) {
+            state.clearCooldown();
+            state.setLastCooldownTrigger(ShieldState.NO_TICK);
+        }
     }
 }
@@ -4,24 +4,20 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import com.gy_mod.gy_trinket.Config;
+import com.gy_mod.gy_trinket.capability.shield.ShieldCapability;
 import com.gy_mod.gy_trinket.item.ShieldItemGy;
 import com.gy_mod.gy_trinket.shield.effect.ShieldEffect;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.damagesource.DamageSource;
 import net.minecraftforge.event.entity.living.LivingAttackEvent;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.UUID;
-
 /**
  * 护盾伤害处理类，负责处理护盾的伤害吸收和无敌时间管理
  */
 public class ShieldDamageHandler {
     // 日志记录器
     private static final Logger LOGGER = LogManager.getLogger(ShieldDamageHandler.class);
-    // 存储玩家的无敌时间结束刻数：UUID -> 无敌时间结束的刻数
-    private static final Map<UUID, Integer> INVULNERABILITY_END = new HashMap<>();
+    // 无敌时间结束的刻数保存在玩家的 ShieldState 能力中
 
     /**
      * 处理玩家受到的伤害，使用护盾吸收
@@ -51,7 +47,6 @@ public class ShieldDamageHandler {
      * @return 是否取消了原始攻击事件
      */
     private static boolean handleShieldAbsorption(Player player, DamageSource damageSource, float damage) {
-        UUID playerId = player.getUUID();
         int currentTick = player.tickCount;
         int currentShield = ShieldManager.getPlayerShieldScaled(player);
         int maxShieldScaled = ShieldManager.getMaxShieldScaled(player);
@@ -130,9 +125,12 @@ public class ShieldDamageHandler {
      * @param currentTick 当前刻数
      */
     public static void setInvulnerability(Player player, int currentTick) {
-        UUID playerId = player.getUUID();
+        ShieldState state = ShieldCapability.get(player);
+        if (state == null) {
+            return;
+        }
         int invulnerabilityDuration = ShieldManager.getShieldInvulnerabilityDuration(player);
-        INVULNERABILITY_END.put(playerId, currentTick + invulnerabilityDuration);
+        state.setInvulnerabilityEnd(currentTick + invulnerabilityDuration);
     }
 
     /**
@@ -141,17 +139,17 @@ public class ShieldDamageHandler {
      * @return 是否处于无敌时间内
      */
     public static boolean isInvulnerable(Player player) {
-        UUID playerId = player.getUUID();
-        if (!INVULNERABILITY_END.containsKey(playerId)) {
+        ShieldState state = ShieldCapability.get(player);
+        if (state == null || !state.hasInvulnerability()) {
             return false;
         }
-        int invulnerabilityEnd = INVULNERABILITY_END.get(playerId);
+        int invulnerabilityEnd = state.getInvulnerabilityEnd();
         int currentTick = player.tickCount;
         if (currentTick <= invulnerabilityEnd) {
             return true;
         } else {
             // 无敌时间结束，移除无敌状态
-            INVULNERABILITY_END.remove(playerId);
+            state.clearInvulnerability();
             return false;
         }
     }
@@ -161,8 +159,10 @@ public class ShieldDamageHandler {
      * @param player 玩家对象
      */
     public static void clearPlayerInvulnerabilityData(Player player) {
-        UUID playerId = player.getUUID();
-        INVULNERABILITY_END.remove(playerId);
+        ShieldState state = ShieldCapability.get(player);
+        if (state != null) {
+            state.clearInvulnerability();
+        }
     }
 
     /**
@@ -170,16 +170,16 @@ public class ShieldDamageHandler {
      * @param player 玩家对象
      */
     public static void updateInvulnerability(Player player) {
-        UUID playerId = player.getUUID();
+        ShieldState state = ShieldCapability.get(player);
+        if (state == null) {
+            return;
+        }
         int currentTick = player.tickCount;
 
         // 检查玩家的无敌时间是否已结束
-        if (INVULNERABILITY_END.containsKey(playerId)) {
-            int endTick = INVULNERABILITY_END.get(playerId);
-            if (currentTick > endTick) {
-                // 无敌时间结束，清理数据
-                INVULNERABILITY_END.remove(playerId);
-            }
+        if (state.hasInvulnerability() && currentTick > state.getInvulnerabilityEnd()) {
+            // 无敌时间结束，清理数据
+            state.clearInvulnerability();
         }
     }
 }
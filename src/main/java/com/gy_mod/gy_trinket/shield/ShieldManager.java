@@ -2,27 +2,21 @@ package com.gy_mod.gy_trinket.shield;
 
 import com.gy_mod.gy_trinket.Config;
 import com.gy_mod.gy_trinket.Config.ShieldConfig;
+import com.gy_mod.gy_trinket.capability.shield.ShieldCapability;
 import com.gy_mod.gy_trinket.event.ShieldEvent;
+import com.gy_mod.gy_trinket.item.FireRingShield;
 import com.gy_mod.gy_trinket.item.ShieldItemGy;
+import net.minecraft.resources.ResourceLocation;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.inventory.PlayerEnderChestContainer;
 import net.minecraft.world.item.ItemStack;
 import net.minecraftforge.registries.ForgeRegistries;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.UUID;
-
 /**
  * 护盾核心管理类，负责管理玩家的护盾数据和基本操作
  */
 public class ShieldManager {
-    // 存储玩家的护盾数据：UUID -> 剩余护盾值（放大100倍存储为整数，实现小数效果）
-    private static final Map<UUID, Integer> PLAYER_SHIELD = new HashMap<>();
-    
-    // 存储客户端玩家的激活护盾类型：UUID -> 护盾物品的registry name
-    // 仅在客户端使用，用于解决客户端无法访问末影箱的问题
-    private static final Map<UUID, String> CLIENT_ACTIVE_SHIELD_TYPE = new HashMap<>();
+    // 玩家的护盾数据（剩余护盾值、客户端激活护盾类型等）保存在附加于玩家实体的 ShieldState 能力中
 
     /**
      * 获取玩家当前护盾值
@@ -30,9 +24,7 @@ public class ShieldManager {
      * @return 当前护盾值（float类型，已缩小100倍）
      */
     public static float getPlayerShield(Player player) {
-        UUID playerId = player.getUUID();
-        int scaledShield = PLAYER_SHIELD.getOrDefault(playerId, 0);
-        return scaledShield / 100.0f;
+        return getPlayerShieldScaled(player) / 100.0f;
     }
 
     /**
@@ -41,9 +33,7 @@ public class ShieldManager {
      * @param shieldValue 新的护盾值（float类型）
      */
     public static void setPlayerShield(Player player, float shieldValue) {
-        UUID playerId = player.getUUID();
-        int scaledShield = Math.round(shieldValue * 100);
-        PLAYER_SHIELD.put(playerId, scaledShield);
+        setPlayerShieldScaled(player, Math.round(shieldValue * 100));
     }
 
     /**
@@ -52,8 +42,8 @@ public class ShieldManager {
      * @return 当前护盾值（整数类型，已放大100倍）
      */
     public static int getPlayerShieldScaled(Player player) {
-        UUID playerId = player.getUUID();
-        return PLAYER_SHIELD.getOrDefault(playerId, 0);
+        ShieldState state = ShieldCapability.get(player);
+        return state == null ? 0 : state.getShield();
     }
 
     /**
@@ -62,8 +52,10 @@ public class ShieldManager {
      * @param scaledShield 新的护盾值（整数类型，已放大100倍）
      */
     public static void setPlayerShieldScaled(Player player, int scaledShield) {
-        UUID playerId = player.getUUID();
-        PLAYER_SHIELD.put(playerId, scaledShield);
+        ShieldState state = ShieldCapability.get(player);
+        if (state != null) {
+            state.setShield(scaledShield);
+        }
     }
 
     /**
@@ -120,21 +112,19 @@ public class ShieldManager {
      * @return 找到的第一个护盾物品，如果没有则返回null
      */
     public static ItemStack getEnderShield(Player player) {
-        // 获取玩家的末影箱库存
+        // 优先使用护盾能力中的缓存，只在末影箱内容变化后重新查找
+        ShieldState state = ShieldCapability.get(player);
+        if (state != null) {
+            return state.getEnderShieldCache().getEnderShield(player);
+        }
+
+        // 没有护盾能力时（如能力已失效），直接遍历末影箱
         PlayerEnderChestContainer enderChest = player.getEnderChestInventory();
         if (enderChest == null) {
             return null;
         }
-
-        // 按栏位顺序遍历末影箱，返回找到的第一个护盾物品
-        for (int i = 0; i < enderChest.getContainerSize(); i++) {
-            ItemStack stack = enderChest.getItem(i);
-            if (!stack.isEmpty() && stack.getItem() instanceof ShieldItemGy) {
-                // 检查物品是否是护盾物品（支持所有ShieldItemGy类型）
-                return stack;
-            }
-        }
-        return null;
+        int slot = EnderShieldCache.findShieldSlot(enderChest);
+        return slot < 0 ? null : enderChest.getItem(slot);
     }
     
     /**
@@ -156,17 +146,16 @@ public class ShieldManager {
      * @return 当前激活的护盾配置，如果没有护盾则返回默认配置
      */
     public static ShieldConfig getActiveShieldConfig(Player player) {
-        // 优先使用客户端激活护盾类型（仅客户端有效）
-        String clientShieldType = getClientActiveShieldType(player);
-        if (!clientShieldType.isEmpty()) {
-            return Config.getShieldConfigOrDefault(clientShieldType);
+        // 优先使用客户端激活护盾（仅客户端有效）
+        ShieldItemGy clientShield = getClientActiveShieldItem(player);
+        if (clientShield != null) {
+            return clientShield.getShieldConfig();
         }
         
-        // 在服务端或客户端无法获取客户端激活护盾类型时，使用末影箱中的护盾物品
+        // 在服务端或客户端无法获取客户端激活护盾时，使用末影箱中的护盾物品
         ShieldItemGy activeShield = getActiveShieldItem(player);
         if (activeShield != null) {
-            String itemId = ForgeRegistries.ITEMS.getKey(activeShield).toString();
-            return Config.getShieldConfigOrDefault(itemId);
+            return activeShield.getShieldConfig();
         }
         
         // 如果没有激活的护盾，返回默认配置
@@ -259,8 +248,10 @@ public class ShieldManager {
      * @param player 玩家对象
      */
     public static void initializePlayerShield(Player player) {
-        UUID playerId = player.getUUID();
-        PLAYER_SHIELD.putIfAbsent(playerId, 0);
+        ShieldState state = ShieldCapability.get(player);
+        if (state != null) {
+            state.setInitialized(true);
+        }
     }
 
     /**
@@ -276,8 +267,7 @@ public class ShieldManager {
      * @param player 玩家对象
      */
     public static void clearPlayerShieldData(Player player) {
-        UUID playerId = player.getUUID();
-        PLAYER_SHIELD.remove(playerId);
+        setPlayerShieldScaled(player, 0);
     }
 
     /**
@@ -296,8 +286,20 @@ public class ShieldManager {
      * @param shieldType 护盾物品的registry name
      */
     public static void setClientActiveShieldType(Player player, String shieldType) {
-        UUID playerId = player.getUUID();
-        CLIENT_ACTIVE_SHIELD_TYPE.put(playerId, shieldType);
+        ShieldState state = ShieldCapability.get(player);
+        if (state == null || state.getClientShieldType().equals(shieldType)) {
+            return;
+        }
+        
+        // 护盾类型变化时才解析对应的护盾物品
+        ShieldItemGy shieldItem = null;
+        if (!shieldType.isEmpty()) {
+            ResourceLocation itemId = ResourceLocation.tryParse(shieldType);
+            if (itemId != null && ForgeRegistries.ITEMS.getValue(itemId) instanceof ShieldItemGy item) {
+                shieldItem = item;
+            }
+        }
+        state.setClientShield(shieldType, shieldItem);
     }
     
     /**
@@ -307,8 +309,19 @@ public class ShieldManager {
      * @return 护盾物品的registry name，如果没有则返回空字符串
      */
     public static String getClientActiveShieldType(Player player) {
-        UUID playerId = player.getUUID();
-        return CLIENT_ACTIVE_SHIELD_TYPE.getOrDefault(playerId, "");
+        ShieldState state = ShieldCapability.get(player);
+        return state == null ? "" : state.getClientShieldType();
+    }
+    
+    /**
+     * 获取客户端玩家的激活护盾物品
+     * 仅在客户端使用
+     * @param player 玩家对象
+     * @return 激活的护盾物品，如果没有则返回null
+     */
+    public static ShieldItemGy getClientActiveShieldItem(Player player) {
+        ShieldState state = ShieldCapability.get(player);
+        return state == null ? null : state.getClientShieldItem();
     }
     
     /**
@@ -317,7 +330,6 @@ public class ShieldManager {
      * @return 是否是火环护盾
      */
     public static boolean isClientActiveShieldFireRing(Player player) {
-        String shieldType = getClientActiveShieldType(player);
-        return "gy_trinket:shield_fire_ring".equals(shieldType);
+        return getClientActiveShieldItem(player) instanceof FireRingShield;
     }
 }
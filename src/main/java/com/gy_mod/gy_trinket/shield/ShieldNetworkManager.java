@@ -1,64 +1,162 @@
 package com.gy_mod.gy_trinket.shield;
 
 import com.gy_mod.gy_trinket.Config;
+import com.gy_mod.gy_trinket.capability.shield.ShieldCapability;
+import com.gy_mod.gy_trinket.event.AmplifierShieldEvent;
+import com.gy_mod.gy_trinket.item.AmplifierShield;
 import com.gy_mod.gy_trinket.network.ModMessages;
+import com.gy_mod.gy_trinket.network.ShieldSyncPacket;
 import com.gy_mod.gy_trinket.network.ShieldUpdatePacket;
 import com.gy_mod.gy_trinket.item.ShieldItemGy;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.server.level.ServerPlayer;
-import net.minecraftforge.registries.ForgeRegistries;
+import net.minecraftforge.common.MinecraftForge;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.server.ServerStoppedEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
 
-import java.util.UUID;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * 护盾网络同步类，负责发送护盾值更新到客户端
+ * 护盾状态变化时只标记为"脏"，在服务器tick结束时统一发送，
+ * 每个玩家每tick最多发送一个数据包，没有变化时不发送
  */
 public class ShieldNetworkManager {
+    // 本tick内护盾状态发生变化、等待同步的玩家（仅在服务器主线程访问）
+    private static final List<ServerPlayer> PENDING_SYNC = new ArrayList<>();
+
     /**
-     * 发送护盾值更新到客户端
+     * 注册事件
+     */
+    public static void register() {
+        MinecraftForge.EVENT_BUS.register(new ShieldNetworkManager());
+    }
+
+    /**
+     * 标记玩家的护盾状态需要同步到客户端（在本tick结束时发送）
      * @param player 玩家对象
+     * @param state 玩家护盾状态
      */
-    public static void sendShieldUpdate(Player player) {
+    public static void markDirty(Player player, ShieldState state) {
         // 只在服务端执行，并确保是服务器玩家
-        if (!player.level().isClientSide() && player instanceof ServerPlayer serverPlayer) {
-            UUID playerId = player.getUUID();
-            int scaledShield = ShieldManager.getPlayerShieldScaled(player);
-            float actualShield = scaledShield / 100.0f;
+        if (player.level().isClientSide() || !(player instanceof ServerPlayer serverPlayer)) {
+            return;
+        }
+        if (!state.isSyncDirty()) {
+            state.setSyncDirty(true);
+            PENDING_SYNC.add(serverPlayer);
+        }
+    }
 
-            // 计算冷却时间信息
-            int currentCooldown = 0;
-            int maxCooldown = Config.shieldRebuildWaitTime;
+    /**
+     * 发送护盾值更新到客户端（在本tick结束时发送）
+     * @param player 玩家对象
+     */
+    public static void sendShieldUpdate(Player player) {
+        ShieldState state = ShieldCapability.get(player);
+        if (state != null) {
+            markDirty(player, state);
+        }
+    }
 
-            // 检查玩家是否在冷却中
-            if (ShieldCooldownManager.isInCooldown(player)) {
-                int startTick = ShieldCooldownManager.getCooldownStartTick(player);
-                int currentTick = player.tickCount;
+    // ========== 服务器tick结束时统一发送 ==========
+    @SubscribeEvent
+    public void onServerTick(TickEvent.ServerTickEvent event) {
+        if (event.phase != TickEvent.Phase.END || PENDING_SYNC.isEmpty()) {
+            return;
+        }
 
-                // 计算已经过去的冷却时间
-                currentCooldown = currentTick - startTick;
+        for (ServerPlayer player : PENDING_SYNC) {
+            ShieldState state = ShieldCapability.get(player);
+            if (state == null || !state.isSyncDirty()) {
+                continue;
+            }
+            state.setSyncDirty(false);
+            // 已退出或已被替换（如死亡重生）的玩家实体不再发送
+            if (player.isRemoved() || player.hasDisconnected()) {
+                continue;
+            }
+            sendShieldUpdateNow(player, state);
+        }
+        PENDING_SYNC.clear();
+    }
 
-                // 计算实际的冷却结束时间 = startTick + Config.shieldRebuildWaitTime
-                int endTick = startTick + Config.shieldRebuildWaitTime;
+    // ========== 服务器关闭时清理等待同步的玩家 ==========
+    @SubscribeEvent
+    public void onServerStopped(ServerStoppedEvent event) {
+        PENDING_SYNC.clear();
+    }
 
-                // 计算实际的总冷却时间
-                int actualMaxCooldown = endTick - startTick;
+    /**
+     * 立即构建并发送护盾更新数据包
+     * @param player 服务器玩家
+     * @param state 玩家护盾状态
+     */
+    private static void sendShieldUpdateNow(ServerPlayer player, ShieldState state) {
+        // 玩家末影箱没有护盾物品时，发送0护盾和0最大护盾值，用于隐藏HUD
+        ShieldItemGy activeShield = ShieldManager.getActiveShieldItem(player);
+        if (activeShield == null) {
+            sendPacket(player, state, 0, 0, 0, 0, false, 0, 0, 0, null, 0.0F);
+            return;
+        }
 
-                // 确保maxCooldown至少为原始值
-                maxCooldown = Math.max(actualMaxCooldown, Config.shieldRebuildWaitTime);
-            }
+        // 计算冷却时间信息
+        int currentCooldown = 0;
+        int rebuildWaitTime = activeShield.getShieldConfig().shieldRebuildWaitTime;
+        int maxCooldown = rebuildWaitTime;
 
-            // 检查玩家是否正在进行护盾重构
-            boolean isRebuilding = ShieldRegenManager.isRebuilding(player);
-            
-            // 获取当前激活的护盾类型
-            String activeShieldType = "";
-            ShieldItemGy activeShield = ShieldManager.getActiveShieldItem(player);
-            if (activeShield != null) {
-                activeShieldType = ForgeRegistries.ITEMS.getKey(activeShield).toString();
-            }
+        // 检查玩家是否在冷却中
+        if (state.isInCooldown()) {
+            // 计算已经过去的冷却时间（冷却通过调整开始时间来延长，结束时间 = 开始时间 + 原始冷却时间）
+            currentCooldown = player.tickCount - state.getCooldownStart();
+        }
+
+        // 计算重构信息（客户端据此自行推算重构期间的护盾值）
+        int rebuildInitial = 0;
+        int rebuildDuration = 0;
+        int rebuildElapsed = 0;
+        if (state.isRebuilding()) {
+            rebuildInitial = state.getRebuildInitial();
+            rebuildDuration = activeShield.getShieldConfig().shieldRebuildDuration;
+            rebuildElapsed = player.tickCount - state.getRebuildStart();
+        }
+
+        // 获取增幅护盾正在应用的伤害提升百分比（缓存值，不遍历攻击力修饰符）
+        float damageBonusPercentage = 0.0F;
+        if (activeShield instanceof AmplifierShield) {
+            damageBonusPercentage = AmplifierShieldEvent.getTotalDamageBonus(player);
+        }
 
-            // 发送护盾更新数据包到客户端，包含冷却时间信息、重构状态和激活护盾类型
-            ShieldUpdatePacket.sendToPlayer(ModMessages.INSTANCE, new ShieldUpdatePacket(actualShield, Config.maxShield, currentCooldown, maxCooldown, isRebuilding, activeShieldType, 0.0F), serverPlayer);
+        // 发送护盾更新数据包到客户端，包含冷却时间信息、重构状态、护盾类型和伤害提升
+        sendPacket(player, state, state.getShield(), (int) activeShield.getMaxShield(), currentCooldown, maxCooldown, state.isRebuilding(),
+                rebuildInitial, rebuildDuration, rebuildElapsed, activeShield, damageBonusPercentage);
+    }
+
+    /**
+     * 按配置选择数据包格式并发送
+     * 紧凑数据包只发送相对上一次同步发生变化的字段，没有变化时不发送
+     * 旧数据包不包含重构信息，重构期间仍由 ShieldEvent 每刻发送
+     */
+    private static void sendPacket(ServerPlayer player, ShieldState state, int scaledShield, int maxShield, int currentCooldown, int maxCooldown,
+                                   boolean isRebuilding, int rebuildInitial, int rebuildDuration, int rebuildElapsed,
+                                   ShieldItemGy activeShield, float damageBonusPercentage) {
+        if (Config.useLegacySyncPacket) {
+            // 旧数据包不包含护盾事件，客户端按每个数据包的状态播放效果
+            state.consumeShieldEvents();
+            // 旧数据包不记录已同步状态，切换回紧凑数据包时需要重新发送所有字段
+            state.getSyncState().invalidate();
+            String shieldType = activeShield == null ? "" : activeShield.getRegistryId();
+            ShieldUpdatePacket.sendToPlayer(ModMessages.INSTANCE, new ShieldUpdatePacket(scaledShield / 100.0f, maxShield, currentCooldown, maxCooldown, isRebuilding, shieldType, damageBonusPercentage), player);
+            return;
+        }
+
+        ShieldSyncPacket packet = ShieldSyncPacket.createDelta(state.getSyncState(), scaledShield, maxShield, currentCooldown, maxCooldown, isRebuilding,
+                rebuildInitial, rebuildDuration, rebuildElapsed, activeShield, damageBonusPercentage,
+                state.getShieldEventId(), state.consumeShieldEvents());
+        if (packet != null) {
+            ShieldSyncPacket.sendToPlayer(ModMessages.INSTANCE, packet, player);
         }
     }
 
@@ -73,11 +171,12 @@ public class ShieldNetworkManager {
             String activeShieldType = "";
             ShieldItemGy activeShield = ShieldManager.getActiveShieldItem(player);
             if (activeShield != null) {
-                activeShieldType = ForgeRegistries.ITEMS.getKey(activeShield).toString();
+                activeShieldType = activeShield.getRegistryId();
             }
             
             // 发送护盾更新数据包到客户端，将maxShield转换为int类型
             ShieldUpdatePacket.sendToPlayer(ModMessages.INSTANCE, new ShieldUpdatePacket(shieldValue, (int) maxShield, 0, 0, false, activeShieldType, 0.0F), serverPlayer);
+            invalidateSyncState(player);
         }
     }
 
@@ -90,6 +189,18 @@ public class ShieldNetworkManager {
         if (!player.level().isClientSide() && player instanceof ServerPlayer serverPlayer) {
             // 发送护盾更新数据包到客户端（0护盾和0最大护盾值，用于隐藏HUD）
             ShieldUpdatePacket.sendToPlayer(ModMessages.INSTANCE, new ShieldUpdatePacket(0, 0, 0, 0), serverPlayer);
+            invalidateSyncState(player);
+        }
+    }
+
+    /**
+     * 直接发送旧数据包后，使已同步状态失效，下次紧凑同步时重新发送所有字段
+     * @param player 玩家对象
+     */
+    private static void invalidateSyncState(Player player) {
+        ShieldState state = ShieldCapability.get(player);
+        if (state != null) {
+            state.getSyncState().invalidate();
         }
     }
 }
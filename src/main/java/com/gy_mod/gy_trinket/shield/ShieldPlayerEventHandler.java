@@ -2,8 +2,6 @@ package com.gy_mod.gy_trinket.shield;
 
 import net.minecraft.world.entity.player.Player;
 
-import java.util.UUID;
-
 /**
  * 玩家事件处理类，负责处理玩家的各种事件，如加入、重生、登出等
  */
@@ -13,8 +11,6 @@ public class ShieldPlayerEventHandler {
      * @param player 玩家对象
      */
     public static void handlePlayerJoin(Player player) {
-        UUID playerId = player.getUUID();
-
         // 初始化玩家的护盾数据
         ShieldManager.setPlayerShieldScaled(player, ShieldManager.getMaxShieldScaled());
 
@@ -49,35 +45,10 @@ public class ShieldPlayerEventHandler {
      * @param player 玩家对象
      */
     public static void handlePlayerLogout(Player player) {
-        UUID playerId = player.getUUID();
-
-        // 清理玩家的所有护盾相关数据，防止内存泄漏
+        // 护盾数据保存在玩家实体的能力中，随实体回收；这里只将运行时状态清零
         ShieldManager.clearPlayerShieldData(player);
         ShieldCooldownManager.clearPlayerCooldownData(player);
         ShieldRegenManager.clearPlayerRebuildData(player);
         ShieldDamageHandler.clearPlayerInvulnerabilityData(player);
     }
-
-    /**
-     * 处理玩家Tick事件
-     * @param player 玩家对象
-     */
-    public static void handlePlayerTick(Player player) {
-        // 检查玩家是否有护盾物品
-        if (!ShieldManager.hasEnderShield(player)) {
-            // 玩家没有护盾物品，清理护盾数据并发送更新
-            ShieldManager.setPlayerShieldScaled(player, 0);
-            ShieldNetworkManager.sendShieldReset(player);
-            ShieldCooldownManager.clearPlayerCooldownData(player);
-            ShieldRegenManager.clearRebuildState(player);
-            ShieldDamageHandler.clearPlayerInvulnerabilityData(player);
-            return;
-        }
-
-        // 处理护盾恢复逻辑
-        ShieldRegenManager.handleShieldRegen(player);
-
-        // 处理无敌时间
-        ShieldDamageHandler.updateInvulnerability(player);
-    }
 }
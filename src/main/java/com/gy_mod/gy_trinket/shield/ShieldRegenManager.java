@@ -1,27 +1,22 @@
 package com.gy_mod.gy_trinket.shield;
 
-import com.gy_mod.gy_trinket.Config;
+import com.gy_mod.gy_trinket.capability.shield.ShieldCapability;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.entity.player.Player;
-
-import java.util.HashMap;
-import java.util.Map;
-import java.util.UUID;
+import net.minecraftforge.server.ServerLifecycleHooks;
 
 /**
  * 护盾恢复管理类，负责护盾的重构和自然恢复逻辑
  */
 public class ShieldRegenManager {
-    // 存储玩家的护盾重构开始时间：UUID -> 开始重构的刻数
-    private static final Map<UUID, Integer> SHIELD_REBUILD_START = new HashMap<>();
-    // 存储玩家的护盾重构前的初始值：UUID -> 重构开始时的护盾值（放大100倍）
-    private static final Map<UUID, Integer> SHIELD_REBUILD_INITIAL = new HashMap<>();
+    // 重构开始刻数、重构开始时的护盾值保存在玩家的 ShieldState 能力中
 
     /**
      * 处理玩家的护盾恢复逻辑（在玩家tick时调用）
      * @param player 玩家对象
      */
     public static void handleShieldRegen(Player player) {
-        UUID playerId = player.getUUID();
         int currentTick = player.tickCount;
         int currentShield = ShieldManager.getPlayerShieldScaled(player);
         int maxShieldScaled = ShieldManager.getMaxShieldScaled(player);
@@ -80,11 +75,14 @@ public class ShieldRegenManager {
      * @param maxShieldScaled 最大护盾值（放大后）
      */
     private static void handleRebuild(Player player, int currentTick, int currentShield, int maxShieldScaled) {
-        UUID playerId = player.getUUID();
+        ShieldState state = ShieldCapability.get(player);
+        if (state == null) {
+            return;
+        }
 
         // 1. 检查是否正在进行护盾重构
-        if (SHIELD_REBUILD_START.containsKey(playerId)) {
-            int rebuildStartTick = SHIELD_REBUILD_START.get(playerId);
+        if (state.isRebuilding()) {
+            int rebuildStartTick = state.getRebuildStart();
             // 获取当前激活护盾的重构持续时间
             int rebuildDuration = ShieldManager.getShieldRebuildDuration(player);
 
@@ -95,7 +93,7 @@ public class ShieldRegenManager {
 
                 // 计算当前应该恢复的护盾值
                 int elapsedTicks = currentTick - rebuildStartTick;
-                int initialShield = SHIELD_REBUILD_INITIAL.getOrDefault(playerId, 0);
+                int initialShield = state.getRebuildInitial();
                 int newShield = initialShield + (regenRate * elapsedTicks);
                 newShield = Math.min(newShield, maxShieldScaled);
 
@@ -146,13 +144,13 @@ public class ShieldRegenManager {
      * @param player 玩家对象
      */
     public static void startRebuild(Player player) {
-        UUID playerId = player.getUUID();
-        int currentTick = player.tickCount;
-        int currentShield = ShieldManager.getPlayerShieldScaled(player);
+        ShieldState state = ShieldCapability.get(player);
+        if (state == null) {
+            return;
+        }
 
-        SHIELD_REBUILD_START.put(playerId, currentTick);
-        SHIELD_REBUILD_INITIAL.put(playerId, currentShield);
-        ShieldCooldownManager.endCooldown(player);
+        state.startRebuild(player.tickCount, state.getShield());
+        state.clearCooldown();
         ShieldNetworkManager.sendShieldUpdate(player);
     }
 
@@ -162,8 +160,8 @@ public class ShieldRegenManager {
      * @return 是否正在重构中
      */
     public static boolean isRebuilding(Player player) {
-        UUID playerId = player.getUUID();
-        return SHIELD_REBUILD_START.containsKey(playerId);
+        ShieldState state = ShieldCapability.get(player);
+        return state != null && state.isRebuilding();
     }
 
     /**
@@ -171,9 +169,10 @@ public class ShieldRegenManager {
      * @param player 玩家对象
      */
     public static void clearRebuildState(Player player) {
-        UUID playerId = player.getUUID();
-        SHIELD_REBUILD_START.remove(playerId);
-        SHIELD_REBUILD_INITIAL.remove(playerId);
+        ShieldState state = ShieldCapability.get(player);
+        if (state != null) {
+            state.clearRebuild();
+        }
     }
 
     /**
@@ -181,16 +180,19 @@ public class ShieldRegenManager {
      * @param player 玩家对象
      */
     public static void clearPlayerRebuildData(Player player) {
-        UUID playerId = player.getUUID();
-        SHIELD_REBUILD_START.remove(playerId);
-        SHIELD_REBUILD_INITIAL.remove(playerId);
+        clearRebuildState(player);
     }
 
     /**
      * 清理所有玩家的重构状态（配置重载时使用）
      */
     public static void clearAllRebuildStates() {
-        SHIELD_REBUILD_START.clear();
-        SHIELD_REBUILD_INITIAL.clear();
+        MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
+        if (server == null) {
+            return;
+        }
+        for (ServerPlayer player : server.getPlayerList().getPlayers()) {
+            clearRebuildState(player);
+        }
     }
 }
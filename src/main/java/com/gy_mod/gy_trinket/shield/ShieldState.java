@@ -0,0 +1,464 @@
+package com.gy_mod.gy_trinket.shield;
+
+import com.gy_mod.gy_trinket.event.ShieldEvent;
+import com.gy_mod.gy_trinket.item.ShieldItemGy;
+import com.gy_mod.gy_trinket.network.ShieldSyncPacket;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import net.minecraft.nbt.CompoundTag;
+
+/**
+ * 玩家护盾状态类
+ * 将原先分散在多个 UUID -> 值 映射中的护盾数据合并为单个可变对象，
+ * 每次事件只需解析一次，然后在吸收、恢复、重构流程中直接传递
+ * 作为Forge能力附加在玩家实体上（见 ShieldCapability），随实体一起回收
+ * 冷却、重构、无敌刻数变化时标记计时器需要重新安排，由玩家tick统一安排到 ShieldTimerWheel
+ */
+public class ShieldState {
+    // 表示"未设置"的刻数标记（刻数本身可能为0，因此不能用0表示未设置）
+    public static final int NO_TICK = Integer.MIN_VALUE;
+    // NBT中保存护盾值的键
+    private static final String NBT_SHIELD_VALUE = "shield_value";
+
+    // 护盾数据是否已初始化（未初始化的玩家在下一次tick时从0开始冷却）
+    private boolean initialized;
+
+    // 剩余护盾值（放大100倍存储为整数，实现小数效果）
+    private int shield;
+    // 护盾冷却开始的刻数
+    private int cooldownStart = NO_TICK;
+    // 护盾重构开始的刻数
+    private int rebuildStart = NO_TICK;
+    // 护盾重构开始时的护盾值（放大100倍）
+    private int rebuildInitial;
+    // 无敌时间结束的刻数
+    private int invulnerabilityEnd = NO_TICK;
+    // 最后一次触发护盾冷却的刻数（用于防止高频触发）
+    private int lastCooldownTrigger = NO_TICK;
+
+    // 冷却、重构、无敌时间的到期计时器（由 ShieldTimerWheel 调度）
+    private final ShieldTimer cooldownTimer = new ShieldTimer(this, ShieldEvent::onCooldownTimer);
+    private final ShieldTimer rebuildTimer = new ShieldTimer(this, ShieldEvent::onRebuildTimer);
+    private final ShieldTimer invulnerabilityTimer = new ShieldTimer(this, ShieldEvent::onInvulnerabilityTimer);
+    // 冷却、重构、无敌刻数是否有变化、需要重新安排计时器
+    private boolean timersDirty;
+    // 是否处于空闲状态（护盾已满或没有护盾、没有任何计时器），空闲时玩家tick直接跳过，直到状态再次变化
+    private boolean idle;
+    // 是否处于无护盾状态（末影箱没有护盾物品，护盾数据已清空并同步），进入后只检查这个标记直到末影箱内容变化
+    private boolean unshielded;
+
+    // 最近一次的弹射物伤害信息（用于反射护盾）
+    private ShieldEvent.ProjectileDamageInfo lastProjectileInfo;
+    // 最近一次弹射物攻击的实际伤害值（用于反射护盾计算）
+    private float lastProjectileDamage;
+
+    // 护盾事件：护盾破裂（护盾值从大于0变为0）
+    public static final int EVENT_BREAK = 1;
+    // 护盾事件：开始重构
+    public static final int EVENT_REBUILD_START = 1 << 1;
+
+    // 最近一次护盾事件的编号（每发生一次事件加1，客户端据此只在状态转换时播放一次效果）
+    private int shieldEventId;
+    // 尚未同步到客户端的护盾事件（位掩码）
+    private int pendingShieldEvents;
+
+    // 护盾状态是否有尚未同步到客户端的变化（不随护盾状态重置，由 ShieldNetworkManager 在tick结束时清除）
+    private boolean syncDirty;
+    // 上一次同步到客户端的护盾状态（用于计算紧凑同步数据包的增量）
+    private final ShieldSyncPacket.SyncState syncState = new ShieldSyncPacket.SyncState();
+
+    // 末影箱护盾缓存（不随护盾状态重置，只跟随末影箱内容变化）
+    private final EnderShieldCache enderShieldCache = new EnderShieldCache();
+
+    // 服务端当前装备的护盾物品（用于在激活的护盾变化时触发 ShieldEffect 的装备/卸下效果）
+    private ShieldItemGy equippedShield;
+
+    // 火环攻击豁免记录（只为装备过火环护盾的玩家创建）
+    private FireRingExemptionBuffer fireRingExemptions;
+    // 上一次火环触发时的服务器刻（用于按实际间隔放大火环伤害）
+    private int fireRingLastTrigger = NO_TICK;
+    // 火环本轮触发尚未完成（在 FireRingScheduler 的等待队列中，因目标预算用完而顺延）
+    private boolean fireRingPending;
+    // 本轮触发已伤害的生物id（目标预算用完后下一刻继续时跳过，只为装备过火环护盾的玩家创建）
+    private IntOpenHashSet fireRingRoundHits;
+    // 本轮触发的伤害放大倍数（开始时计算，顺延的目标使用同一倍数）
+    private float fireRingRoundScale = 1.0f;
+    // 上一轮触发从开始到完成等待的刻数（下一轮按此补偿伤害）
+    private int fireRingRoundDelay;
+
+    // 增幅护盾状态（只为装备过增幅护盾的玩家创建）
+    private AmplifierState amplifierState;
+
+    // 客户端激活的护盾类型（护盾物品的registry name），仅在客户端使用，用于解决客户端无法访问末影箱的问题
+    private String clientShieldType = "";
+    // 客户端激活的护盾物品（由护盾类型解析得到，仅在类型变化时重新解析）
+    private ShieldItemGy clientShieldItem;
+
+    // ========== 初始化 ==========
+    public boolean isInitialized() {
+        return initialized;
+    }
+
+    public void setInitialized(boolean initialized) {
+        this.initialized = initialized;
+    }
+
+    // ========== 护盾值 ==========
+    public int getShield() {
+        return shield;
+    }
+
+    public void setShield(int shield) {
+        if (this.shield != shield) {
+            if (this.shield > 0 && shield <= 0) {
+                recordShieldEvent(EVENT_BREAK);
+            }
+            this.shield = shield;
+            this.idle = false;
+            this.unshielded = false;
+        }
+    }
+
+    // ========== 冷却 ==========
+    public boolean isInCooldown() {
+        return cooldownStart != NO_TICK;
+    }
+
+    public int getCooldownStart() {
+        return cooldownStart;
+    }
+
+    public void setCooldownStart(int cooldownStart) {
+        this.cooldownStart = cooldownStart;
+        markTimersDirty();
+    }
+
+    public void clearCooldown() {
+        if (cooldownStart != NO_TICK) {
+            this.cooldownStart = NO_TICK;
+            markTimersDirty();
+        }
+    }
+
+    // ========== 重构 ==========
+    public boolean isRebuilding() {
+        return rebuildStart != NO_TICK;
+    }
+
+    public int getRebuildStart() {
+        return rebuildStart;
+    }
+
+    public int getRebuildInitial() {
+        return rebuildInitial;
+    }
+
+    /**
+     * 开始护盾重构
+     * @param tick 重构开始的刻数
+     * @param initialShield 重构开始时的护盾值（放大100倍）
+     */
+    public void startRebuild(int tick, int initialShield) {
+        this.rebuildStart = tick;
+        this.rebuildInitial = initialShield;
+        recordShieldEvent(EVENT_REBUILD_START);
+        markTimersDirty();
+    }
+
+    public void clearRebuild() {
+        if (rebuildStart != NO_TICK) {
+            this.rebuildStart = NO_TICK;
+            markTimersDirty();
+        }
+        this.rebuildInitial = 0;
+    }
+
+    // ========== 无敌时间 ==========
+    public boolean hasInvulnerability() {
+        return invulnerabilityEnd != NO_TICK;
+    }
+
+    public int getInvulnerabilityEnd() {
+        return invulnerabilityEnd;
+    }
+
+    public void setInvulnerabilityEnd(int invulnerabilityEnd) {
+        this.invulnerabilityEnd = invulnerabilityEnd;
+        markTimersDirty();
+    }
+
+    public void clearInvulnerability() {
+        if (invulnerabilityEnd != NO_TICK) {
+            this.invulnerabilityEnd = NO_TICK;
+            markTimersDirty();
+        }
+    }
+
+    // ========== 计时器 ==========
+    public ShieldTimer getCooldownTimer() {
+        return cooldownTimer;
+    }
+
+    public ShieldTimer getRebuildTimer() {
+        return rebuildTimer;
+    }
+
+    public ShieldTimer getInvulnerabilityTimer() {
+        return invulnerabilityTimer;
+    }
+
+    public boolean isTimersDirty() {
+        return timersDirty;
+    }
+
+    public void setTimersDirty(boolean timersDirty) {
+        this.timersDirty = timersDirty;
+    }
+
+    /**
+     * 标记计时器需要重新安排（同时退出空闲状态，确保下一次玩家tick时处理）
+     */
+    public void markTimersDirty() {
+        this.timersDirty = true;
+        this.idle = false;
+        this.unshielded = false;
+    }
+
+    // ========== 空闲状态 ==========
+    public boolean isIdle() {
+        return idle;
+    }
+
+    public void setIdle(boolean idle) {
+        this.idle = idle;
+    }
+
+    // ========== 无护盾状态 ==========
+    public boolean isUnshielded() {
+        return unshielded;
+    }
+
+    public void setUnshielded(boolean unshielded) {
+        this.unshielded = unshielded;
+    }
+
+    // ========== 零护盾冷却触发 ==========
+    public boolean hasLastCooldownTrigger() {
+        return lastCooldownTrigger != NO_TICK;
+    }
+
+    public int getLastCooldownTrigger() {
+        return lastCooldownTrigger;
+    }
+
+    public void setLastCooldownTrigger(int lastCooldownTrigger) {
+        this.lastCooldownTrigger = lastCooldownTrigger;
+    }
+
+    // ========== 弹射物信息 ==========
+    public ShieldEvent.ProjectileDamageInfo getLastProjectileInfo() {
+        return lastProjectileInfo;
+    }
+
+    public void setLastProjectileInfo(ShieldEvent.ProjectileDamageInfo lastProjectileInfo) {
+        this.lastProjectileInfo = lastProjectileInfo;
+    }
+
+    public float getLastProjectileDamage() {
+        return lastProjectileDamage;
+    }
+
+    public void setLastProjectileDamage(float lastProjectileDamage) {
+        this.lastProjectileDamage = lastProjectileDamage;
+    }
+
+    // ========== 网络同步 ==========
+    public boolean isSyncDirty() {
+        return syncDirty;
+    }
+
+    public void setSyncDirty(boolean syncDirty) {
+        this.syncDirty = syncDirty;
+    }
+
+    public ShieldSyncPacket.SyncState getSyncState() {
+        return syncState;
+    }
+
+    // ========== 末影箱护盾缓存 ==========
+    public EnderShieldCache getEnderShieldCache() {
+        return enderShieldCache;
+    }
+
+    // ========== 装备的护盾 ==========
+    public ShieldItemGy getEquippedShield() {
+        return equippedShield;
+    }
+
+    public void setEquippedShield(ShieldItemGy equippedShield) {
+        this.equippedShield = equippedShield;
+    }
+
+    // ========== 火环攻击豁免 ==========
+    public FireRingExemptionBuffer getFireRingExemptions() {
+        if (fireRingExemptions == null) {
+            fireRingExemptions = new FireRingExemptionBuffer();
+        }
+        return fireRingExemptions;
+    }
+
+    public int getFireRingLastTrigger() {
+        return fireRingLastTrigger;
+    }
+
+    public boolean hasFireRingLastTrigger() {
+        return fireRingLastTrigger != NO_TICK;
+    }
+
+    public void setFireRingLastTrigger(int fireRingLastTrigger) {
+        this.fireRingLastTrigger = fireRingLastTrigger;
+    }
+
+    public boolean isFireRingPending() {
+        return fireRingPending;
+    }
+
+    public void setFireRingPending(boolean fireRingPending) {
+        this.fireRingPending = fireRingPending;
+    }
+
+    public IntOpenHashSet getFireRingRoundHits() {
+        if (fireRingRoundHits == null) {
+            fireRingRoundHits = new IntOpenHashSet();
+        }
+        return fireRingRoundHits;
+    }
+
+    public float getFireRingRoundScale() {
+        return fireRingRoundScale;
+    }
+
+    public void setFireRingRoundScale(float fireRingRoundScale) {
+        this.fireRingRoundScale = fireRingRoundScale;
+    }
+
+    public int getFireRingRoundDelay() {
+        return fireRingRoundDelay;
+    }
+
+    public void setFireRingRoundDelay(int fireRingRoundDelay) {
+        this.fireRingRoundDelay = fireRingRoundDelay;
+    }
+
+    // ========== 护盾事件 ==========
+    private void recordShieldEvent(int event) {
+        this.shieldEventId++;
+        this.pendingShieldEvents |= event;
+    }
+
+    public int getShieldEventId() {
+        return shieldEventId;
+    }
+
+    /**
+     * 取出尚未同步的护盾事件并清空（由 ShieldNetworkManager 在创建同步数据包时调用）
+     * @return 护盾事件位掩码
+     */
+    public int consumeShieldEvents() {
+        int events = pendingShieldEvents;
+        pendingShieldEvents = 0;
+        return events;
+    }
+
+    // ========== 增幅护盾 ==========
+    public AmplifierState getAmplifierState() {
+        if (amplifierState == null) {
+            amplifierState = new AmplifierState();
+        }
+        return amplifierState;
+    }
+
+    /**
+     * 获取增幅护盾状态，不存在时不创建
+     * @return 增幅护盾状态，从未装备过增幅护盾时为null
+     */
+    public AmplifierState peekAmplifierState() {
+        return amplifierState;
+    }
+
+    // ========== 客户端护盾类型 ==========
+    public String getClientShieldType() {
+        return clientShieldType;
+    }
+
+    public ShieldItemGy getClientShieldItem() {
+        return clientShieldItem;
+    }
+
+    /**
+     * 设置客户端激活的护盾类型及对应的护盾物品
+     * @param clientShieldType 护盾物品的registry name
+     * @param clientShieldItem 护盾物品，类型为空或无法解析时为null
+     */
+    public void setClientShield(String clientShieldType, ShieldItemGy clientShieldItem) {
+        this.clientShieldType = clientShieldType;
+        this.clientShieldItem = clientShieldItem;
+    }
+
+    // ========== 生命周期 ==========
+    /**
+     * 重置为未初始化的0护盾状态
+     */
+    public void reset() {
+        this.initialized = false;
+        this.shield = 0;
+        this.cooldownStart = NO_TICK;
+        this.rebuildStart = NO_TICK;
+        this.rebuildInitial = 0;
+        this.invulnerabilityEnd = NO_TICK;
+        this.lastCooldownTrigger = NO_TICK;
+        this.lastProjectileInfo = null;
+        this.lastProjectileDamage = 0.0f;
+        markTimersDirty();
+    }
+
+    /**
+     * 从旧实体的护盾状态复制数据（用于跨维度等非死亡的玩家实体克隆）
+     * 刻数基于 player.tickCount，新实体的tickCount会重新计数，因此所有刻数都需要平移
+     * @param other 旧实体的护盾状态
+     * @param tickOffset 新实体tickCount - 旧实体tickCount
+     */
+    public void copyFrom(ShieldState other, int tickOffset) {
+        this.initialized = other.initialized;
+        this.shield = other.shield;
+        this.cooldownStart = shiftTick(other.cooldownStart, tickOffset);
+        this.rebuildStart = shiftTick(other.rebuildStart, tickOffset);
+        this.rebuildInitial = other.rebuildInitial;
+        this.invulnerabilityEnd = shiftTick(other.invulnerabilityEnd, tickOffset);
+        this.lastCooldownTrigger = shiftTick(other.lastCooldownTrigger, tickOffset);
+        // 弹射物信息引用旧维度中的实体，不复制
+        this.lastProjectileInfo = null;
+        this.lastProjectileDamage = 0.0f;
+        markTimersDirty();
+    }
+
+    private static int shiftTick(int tick, int tickOffset) {
+        return tick == NO_TICK ? NO_TICK : tick + tickOffset;
+    }
+
+    /**
+     * 保存护盾状态到NBT（随玩家数据持久化）
+     * 只保存护盾值，冷却等刻数基于实体tickCount，重新加载后没有意义
+     * @param tag 目标NBT
+     */
+    public void saveNBTData(CompoundTag tag) {
+        tag.putInt(NBT_SHIELD_VALUE, Math.max(0, shield));
+    }
+
+    /**
+     * 从NBT加载护盾状态
+     * @param tag 来源NBT
+     */
+    public void loadNBTData(CompoundTag tag) {
+        this.shield = Math.max(0, tag.getInt(NBT_SHIELD_VALUE));
+    }
+}
@@ -0,0 +1,86 @@
+package com.gy_mod.gy_trinket.shield;
+
+import com.gy_mod.gy_trinket.capability.shield.ShieldCapability;
+import com.gy_mod.gy_trinket.event.ShieldEvent;
+import com.gy_mod.gy_trinket.item.ShieldItemGy;
+import net.minecraft.world.entity.player.Player;
+import net.minecraftforge.common.MinecraftForge;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+
+/**
+ * 护盾tick分发类
+ * 唯一的玩家tick监听：每个玩家每tick只解析一次护盾状态和激活的护盾物品，
+ * 先处理护盾的恢复、冷却、重构（ShieldEvent.tickShield），再调用激活护盾的 ShieldEffect.tickEffect
+ */
+public class ShieldTickDispatcher {
+
+    /**
+     * 注册事件
+     */
+    public static void register() {
+        MinecraftForge.EVENT_BUS.register(new ShieldTickDispatcher());
+    }
+
+    // ========== 玩家tick结束时分发 ==========
+    @SubscribeEvent
+    public void onPlayerTick(TickEvent.PlayerTickEvent event) {
+        if (event.phase != TickEvent.Phase.END) {
+            return;
+        }
+
+        Player player = event.player;
+        ShieldState state = ShieldCapability.get(player);
+        if (state == null) {
+            return;
+        }
+
+        // 客户端：只有本地玩家有同步过来的激活护盾，只执行护盾效果（如火环粒子）
+        if (player.level().isClientSide()) {
+            ShieldItemGy clientShield = state.getClientShieldItem();
+            if (clientShield != null) {
+                clientShield.getShieldEffect().tickEffect(clientShield, player, state.getShield() / 100.0f, clientShield.getMaxShield());
+            }
+            return;
+        }
+
+        // 服务端：末影箱缓存是否失效必须在解析护盾物品前读取（解析后缓存会重新生效）
+        boolean enderChanged = !state.getEnderShieldCache().isValid();
+
+        // 服务端：无护盾的玩家在末影箱内容变化前不需要任何处理（不查找护盾物品、不重置、不同步）
+        if (state.isUnshielded() && !enderChanged) {
+            return;
+        }
+
+        // 服务端：解析一次激活的护盾物品（末影箱缓存），在护盾变化时触发装备/卸下效果
+        ShieldItemGy activeShield = ShieldManager.getActiveShieldItem(player);
+        boolean shieldChanged = enderChanged || state.getEquippedShield() != activeShield;
+        updateEquippedShield(player, state, activeShield);
+
+        ShieldEvent.tickShield(player, state, activeShield, shieldChanged);
+
+        if (activeShield != null) {
+            activeShield.getShieldEffect().tickEffect(activeShield, player, state.getShield() / 100.0f, activeShield.getMaxShield());
+        }
+    }
+
+    /**
+     * 激活的护盾物品变化时，触发旧护盾的卸下效果和新护盾的装备效果
+     * @param player 玩家对象
+     * @param state 玩家护盾状态
+     * @param activeShield 当前激活的护盾物品，没有时为null
+     */
+    private static void updateEquippedShield(Player player, ShieldState state, ShieldItemGy activeShield) {
+        ShieldItemGy equippedShield = state.getEquippedShield();
+        if (equippedShield == activeShield) {
+            return;
+        }
+        state.setEquippedShield(activeShield);
+        if (equippedShield != null) {
+            equippedShield.getShieldEffect().onUnequip(equippedShield, player);
+        }
+        if (activeShield != null) {
+            activeShield.getShieldEffect().onEquip(activeShield, player);
+        }
+    }
+}
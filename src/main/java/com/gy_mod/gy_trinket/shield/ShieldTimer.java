@@ -0,0 +1,45 @@
+package com.gy_mod.gy_trinket.shield;
+
+import net.minecraft.server.level.ServerPlayer;
+
+/**
+ * 护盾计时器
+ * 作为侵入式链表节点直接挂在时间轮（ShieldTimerWheel）的槽位上，每个护盾状态固定持有冷却、重构、无敌三个计时器，
+ * 重新安排或取消时只需从链表中摘除，不需要额外分配对象
+ */
+public class ShieldTimer {
+    /**
+     * 计时器到期回调（在服务器tick开始时调用，回调需要自行检查状态是否仍然有效）
+     */
+    public interface Callback {
+        void onExpire(ServerPlayer player, ShieldState state);
+    }
+
+    // 计时器所属的护盾状态
+    final ShieldState state;
+    // 到期回调
+    final Callback callback;
+
+    // 计时器所属的玩家（安排时设置，到期或取消时清空）
+    ServerPlayer owner;
+    // 到期的时间轮刻数
+    long deadline;
+    // 所在的时间轮槽位，未安排时为-1
+    int bucket = -1;
+    // 槽位链表中的前后节点
+    ShieldTimer prev;
+    ShieldTimer next;
+
+    public ShieldTimer(ShieldState state, Callback callback) {
+        this.state = state;
+        this.callback = callback;
+    }
+
+    /**
+     * 计时器是否已安排到时间轮中
+     * @return 是否已安排
+     */
+    public boolean isScheduled() {
+        return bucket >= 0;
+    }
+}
@@ -0,0 +1,210 @@
+package com.gy_mod.gy_trinket.shield;
+
+import com.gy_mod.gy_trinket.capability.shield.ShieldCapability;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraftforge.common.MinecraftForge;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.entity.player.PlayerEvent;
+import net.minecraftforge.event.server.ServerStoppedEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+
+/**
+ * 护盾分层时间轮
+ * 护盾冷却结束、重构完成、无敌时间结束都安排为时间轮上的计时器，到期时才回调，
+ * 不再需要每刻轮询每个玩家的刻数；护盾已满且没有计时器的空闲玩家每刻不产生任何开销
+ *
+ * 共4层，每层64个槽位：第0层每个槽位1刻，第1层64刻，第2层4096刻，第3层262144刻，
+ * 低层转完一圈时将高层对应槽位中的计时器重新分配到低层；超出范围的计时器先放在最高层，到时再重新分配
+ * 时间轮只在服务器主线程访问
+ */
+public class ShieldTimerWheel {
+    // 每层槽位数的位数
+    private static final int SLOT_BITS = 6;
+    // 每层槽位数
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    // 层数
+    private static final int LEVELS = 4;
+    // 时间轮能直接表示的最大延迟（刻）
+    private static final long MAX_DELAY = (1L << (SLOT_BITS * LEVELS)) - 1;
+
+    // 所有层的槽位（第level层第slot个槽位的索引为 level * SLOTS + slot），每个槽位是计时器链表的头节点
+    private static final ShieldTimer[] BUCKETS = new ShieldTimer[SLOTS * LEVELS];
+    // 时间轮当前刻数（在每个服务器tick开始时加1）
+    private static long currentTick = 0;
+
+    /**
+     * 注册事件
+     */
+    public static void register() {
+        MinecraftForge.EVENT_BUS.register(new ShieldTimerWheel());
+    }
+
+    /**
+     * 安排计时器在玩家tickCount到达指定刻数时到期（已安排的计时器会被重新安排）
+     * 回调在玩家到达该刻数后的下一个服务器tick开始时执行
+     * @param player 计时器所属的玩家
+     * @param timer 计时器
+     * @param playerTick 到期时玩家的tickCount
+     */
+    public static void schedule(ServerPlayer player, ShieldTimer timer, int playerTick) {
+        // 玩家每个服务器tick的tickCount加1，回调在服务器tick开始时执行，因此需要多等一刻
+        long delay = (long) playerTick - player.tickCount + 1;
+        unlink(timer);
+        timer.owner = player;
+        timer.deadline = currentTick + Math.max(1, delay);
+        link(timer, bucketFor(timer.deadline));
+    }
+
+    /**
+     * 取消计时器
+     * @param timer 计时器
+     */
+    public static void cancel(ShieldTimer timer) {
+        unlink(timer);
+        timer.owner = null;
+    }
+
+    /**
+     * 取消护盾状态的所有计时器（玩家退出或实体被替换时调用）
+     * @param state 护盾状态
+     */
+    public static void cancelAll(ShieldState state) {
+        cancel(state.getCooldownTimer());
+        cancel(state.getRebuildTimer());
+        cancel(state.getInvulnerabilityTimer());
+    }
+
+    // ========== 服务器tick开始时推进时间轮 ==========
+    @SubscribeEvent
+    public void onServerTick(TickEvent.ServerTickEvent event) {
+        if (event.phase != TickEvent.Phase.START) {
+            return;
+        }
+        advance();
+    }
+
+    // ========== 玩家退出时取消计时器 ==========
+    @SubscribeEvent
+    public void onPlayerLoggedOut(PlayerEvent.PlayerLoggedOutEvent event) {
+        ShieldState state = ShieldCapability.get(event.getEntity());
+        if (state != null) {
+            cancelAll(state);
+        }
+    }
+
+    // ========== 服务器关闭时清空时间轮 ==========
+    @SubscribeEvent
+    public void onServerStopped(ServerStoppedEvent event) {
+        for (int i = 0; i < BUCKETS.length; i++) {
+            ShieldTimer timer;
+            while ((timer = BUCKETS[i]) != null) {
+                cancel(timer);
+            }
+        }
+        currentTick = 0;
+    }
+
+    /**
+     * 推进时间轮一刻，执行所有到期的计时器
+     */
+    private static void advance() {
+        currentTick++;
+
+        // 低层转完一圈时，将高层对应槽位的计时器重新分配到低层
+        for (int level = 1; level < LEVELS; level++) {
+            if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) != 0) {
+                break;
+            }
+            cascade(level * SLOTS + (int) ((currentTick >> (SLOT_BITS * level)) & SLOT_MASK));
+        }
+
+        // 执行第0层当前槽位中的计时器（回调中重新安排的计时器至少延迟1刻，不会回到当前槽位）
+        int bucket = (int) (currentTick & SLOT_MASK);
+        ShieldTimer timer;
+        while ((timer = BUCKETS[bucket]) != null) {
+            unlink(timer);
+            // 超出时间轮范围的计时器尚未真正到期，重新分配
+            if (timer.deadline > currentTick) {
+                link(timer, bucketFor(timer.deadline));
+                continue;
+            }
+            fire(timer);
+        }
+    }
+
+    /**
+     * 执行到期的计时器
+     * @param timer 到期的计时器
+     */
+    private static void fire(ShieldTimer timer) {
+        ServerPlayer player = timer.owner;
+        timer.owner = null;
+        // 已退出或已被替换（如死亡重生）的玩家实体不再回调
+        if (player == null || player.isRemoved() || player.hasDisconnected()) {
+            return;
+        }
+        timer.callback.onExpire(player, timer.state);
+    }
+
+    /**
+     * 将槽位中的所有计时器重新分配到更低的层
+     * @param bucket 槽位索引
+     */
+    private static void cascade(int bucket) {
+        ShieldTimer timer = BUCKETS[bucket];
+        BUCKETS[bucket] = null;
+        while (timer != null) {
+            ShieldTimer next = timer.next;
+            timer.prev = null;
+            timer.next = null;
+            timer.bucket = -1;
+            link(timer, bucketFor(timer.deadline));
+            timer = next;
+        }
+    }
+
+    /**
+     * 根据到期刻数计算计时器所在的槽位
+     * 延迟小于 64^(level+1) 的计时器放在第level层，槽位由到期刻数在该层的位决定
+     * @param deadline 到期的时间轮刻数
+     * @return 槽位索引
+     */
+    private static int bucketFor(long deadline) {
+        long delay = Math.min(Math.max(0, deadline - currentTick), MAX_DELAY);
+        long target = currentTick + delay;
+        int level = 0;
+        while (level < LEVELS - 1 && delay >= (1L << (SLOT_BITS * (level + 1)))) {
+            level++;
+        }
+        return level * SLOTS + (int) ((target >> (SLOT_BITS * level)) & SLOT_MASK);
+    }
+
+    private static void link(ShieldTimer timer, int bucket) {
+        ShieldTimer head = BUCKETS[bucket];
+        timer.bucket = bucket;
+        timer.prev = null;
+        timer.next = head;
+        if (head != null) {
+            head.prev = timer;
+        }
+        BUCKETS[bucket] = timer;
+    }
+
+    private static void unlink(ShieldTimer timer) {
+        if (timer.bucket < 0) {
+            return;
+        }
+        if (timer.prev != null) {
+            timer.prev.next = timer.next;
+        } else {
+            BUCKETS[timer.bucket] = timer.next;
+        }
+        if (timer.next != null) {
+            timer.next.prev = timer.prev;
+        }
+        timer.prev = null;
+        timer.next = null;
+        timer.bucket = -1;
+    }
+}
@@ -7,6 +7,7 @@ import net.minecraft.world.damagesource.DamageSource;
 /**
  * 护盾效果接口，定义了护盾可以实现的特殊效果
  * 每种护盾可以通过实现这个接口来提供独特的效果
+ * 护盾状态和激活的护盾物品由 ShieldTickDispatcher 每tick解析一次，再分发给激活护盾的效果
  */
 public interface ShieldEffect {
     /**
@@ -33,21 +34,21 @@ public interface ShieldEffect {
     void onRebuildComplete(ShieldItemGy shield, Player player);
 
     /**
-     * 当玩家装备护盾时触发的效果
+     * 当玩家装备护盾时触发的效果（服务端，末影箱中激活的护盾变为该护盾时）
      * @param shield 触发效果的护盾物品
      * @param player 装备护盾的玩家
      */
     void onEquip(ShieldItemGy shield, Player player);
 
     /**
-     * 当玩家卸下护盾时触发的效果
+     * 当玩家卸下护盾时触发的效果（服务端，末影箱中激活的护盾不再是该护盾时）
      * @param shield 触发效果的护盾物品
      * @param player 卸下护盾的玩家
      */
     void onUnequip(ShieldItemGy shield, Player player);
 
     /**
-     * 每tick执行的持续效果
+     * 每tick执行的持续效果（由 ShieldTickDispatcher 在服务端和客户端每个玩家tick结束时调用）
      * @param shield 触发效果的护盾物品
      * @param player 装备护盾的玩家
      * @param currentShield 当前护盾值
@@ -0,0 +1,54 @@
+package com.gy_mod.gy_trinket.shield.particle;
+
+import com.gy_mod.gy_trinket.shield.ShieldState;
+
+/**
+ * 客户端护盾效果状态机（仅客户端，只有本地玩家一个）
+ * 根据同步数据包中的护盾事件在状态转换时播放一次效果：
+ * 护盾正常 -> 破裂时播放破裂粒子，冷却/破裂 -> 开始重构时播放重构粒子，
+ * 重复收到同一状态的数据包不会再次播放
+ */
+public class ShieldClientEffects {
+    /**
+     * 客户端护盾阶段
+     */
+    private enum Phase {
+        // 护盾有剩余值且不在重构
+        ACTIVE,
+        // 护盾已破裂（冷却中）
+        BROKEN,
+        // 护盾重构中
+        REBUILDING
+    }
+
+    // 本地玩家当前的护盾阶段
+    private static Phase phase = Phase.ACTIVE;
+
+    /**
+     * 收到护盾同步后更新阶段，并在状态转换时播放效果
+     * @param events 本次同步附带的新护盾事件（ShieldState.EVENT_* 位掩码，没有时为0）
+     * @param shield 当前护盾值（放大100倍）
+     * @param rebuilding 是否正在重构
+     */
+    public static void onSync(int events, int shield, boolean rebuilding) {
+        if ((events & ShieldState.EVENT_BREAK) != 0 && phase != Phase.BROKEN) {
+            phase = Phase.BROKEN;
+            ShieldParticleGenerator.generateShieldBreakParticlesClient();
+        }
+        if ((events & ShieldState.EVENT_REBUILD_START) != 0 && phase != Phase.REBUILDING) {
+            phase = Phase.REBUILDING;
+            ShieldParticleGenerator.generateShieldRebuildParticles();
+        }
+        // 重构完成或护盾恢复后回到正常阶段
+        if (!rebuilding && shield > 0) {
+            phase = Phase.ACTIVE;
+        }
+    }
+
+    /**
+     * 重置为正常阶段（退出世界或重生时调用）
+     */
+    public static void reset() {
+        phase = Phase.ACTIVE;
+    }
+}
@@ -0,0 +1,95 @@
+package com.gy_mod.gy_trinket.shield.particle;
+
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.ParticleStatus;
+import net.minecraft.util.Mth;
+import net.minecraft.world.phys.Vec3;
+
+/**
+ * 护盾粒子预算（仅客户端）
+ * 所有护盾粒子效果共享每刻的粒子数量上限，并按与摄像机的距离和原版粒子设置缩减粒子数量：
+ * 距离16格以内全部生成，16到64格之间线性减少，64格以外不生成；粒子设置为“减少”时减半，“最少”时不生成
+ */
+public class ShieldParticleBudget {
+    // 每刻所有护盾粒子效果最多生成的粒子数量
+    private static final int PARTICLES_PER_TICK = 200;
+    // 完整生成粒子的距离（格）
+    private static final double FULL_DETAIL_DISTANCE = 16.0;
+    // 不再生成粒子的距离（格）
+    private static final double CULL_DISTANCE = 64.0;
+
+    // 预算对应的游戏刻（进入新的一刻时重置预算）
+    private static long budgetTick = Long.MIN_VALUE;
+    // 本刻剩余的粒子数量
+    private static int remaining = PARTICLES_PER_TICK;
+
+    /**
+     * 本刻是否还有剩余的粒子预算（用于在生成粒子前跳过开销较大的检查）
+     * @return 是否还有剩余预算
+     */
+    public static boolean hasBudget() {
+        Minecraft minecraft = Minecraft.getInstance();
+        if (minecraft.level == null) {
+            return false;
+        }
+        refresh(minecraft.level.getGameTime());
+        return remaining > 0;
+    }
+
+    /**
+     * 按距离、粒子设置和剩余预算计算实际生成的粒子数量，并从预算中扣除
+     * @param x 粒子效果中心X坐标
+     * @param y 粒子效果中心Y坐标
+     * @param z 粒子效果中心Z坐标
+     * @param requested 完整效果的粒子数量
+     * @return 实际生成的粒子数量（可能为0）
+     */
+    public static int allocate(double x, double y, double z, int requested) {
+        Minecraft minecraft = Minecraft.getInstance();
+        if (minecraft.level == null) {
+            return 0;
+        }
+        refresh(minecraft.level.getGameTime());
+
+        double scale = getSettingScale(minecraft) * getDistanceScale(minecraft, x, y, z);
+        int count = Math.min(Mth.ceil(requested * scale), remaining);
+        if (count <= 0) {
+            return 0;
+        }
+        remaining -= count;
+        return count;
+    }
+
+    /**
+     * 原版粒子设置对应的缩放比例
+     */
+    private static double getSettingScale(Minecraft minecraft) {
+        ParticleStatus status = minecraft.options.particles().get();
+        if (status == ParticleStatus.MINIMAL) {
+            return 0.0;
+        }
+        return status == ParticleStatus.DECREASED ? 0.5 : 1.0;
+    }
+
+    /**
+     * 与摄像机距离对应的缩放比例
+     */
+    private static double getDistanceScale(Minecraft minecraft, double x, double y, double z) {
+        Vec3 camera = minecraft.gameRenderer.getMainCamera().getPosition();
+        double distance = Math.sqrt(camera.distanceToSqr(x, y, z));
+        if (distance <= FULL_DETAIL_DISTANCE) {
+            return 1.0;
+        }
+        return Mth.clamp(1.0 - (distance - FULL_DETAIL_DISTANCE) / (CULL_DISTANCE - FULL_DETAIL_DISTANCE), 0.0, 1.0);
+    }
+
+    /**
+     * 进入新的游戏刻时重置预算
+     */
+    private static void refresh(long gameTime) {
+        if (budgetTick != gameTime) {
+            budgetTick = gameTime;
+            remaining = PARTICLES_PER_TICK;
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.gy_mod.gy_trinket.shield.particle;
 
 import net.minecraft.client.Minecraft;
 import net.minecraft.core.particles.ParticleTypes;
+import net.minecraft.util.RandomSource;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.client.player.LocalPlayer;
 import net.minecraft.client.multiplayer.ClientLevel;
@@ -10,6 +11,7 @@ import net.minecraft.world.phys.Vec3;
 import com.gy_mod.gy_trinket.Config;
 import com.gy_mod.gy_trinket.Config.ShieldConfig;
 import com.gy_mod.gy_trinket.item.ShieldItemGy;
+import com.gy_mod.gy_trinket.network.ShieldBreakBurstPacket;
 import com.gy_mod.gy_trinket.shield.ShieldManager;
 import net.minecraftforge.registries.ForgeRegistries;
 
@@ -19,8 +21,12 @@ import net.minecraftforge.registries.ForgeRegistries;
  */
 public class ShieldParticleGenerator {
     
+    // 护盾破裂时默认的粒子数量
+    private static final int SHIELD_BREAK_PARTICLE_COUNT = 40;
+    
     /**
      * 生成护盾破裂粒子效果（服务器端）- 产生更多更大范围的粒子
+     * 只向玩家自身和追踪该玩家的客户端各发送一个数据包，粒子由客户端按随机种子生成
      */
     public static void generateShieldBreakParticles(Player player) {
         if (player == null || player.level().isClientSide()) {
@@ -33,42 +39,49 @@ public class ShieldParticleGenerator {
         // 获取玩家位置
         Vec3 playerPos = serverPlayer.position().add(0, serverPlayer.getBbHeight() / 2, 0);
         
-        // 创建粒子效果
-        net.minecraft.server.level.ServerLevel level = serverPlayer.serverLevel();
+        ShieldBreakBurstPacket.sendToTrackingAndSelf(serverPlayer, new ShieldBreakBurstPacket(
+                playerPos.x, playerPos.y, playerPos.z, serverPlayer.getRandom().nextLong(), 1.0F));
+    }
+    
+    /**
+     * 客户端生成护盾破裂的爆发粒子（由护盾破裂粒子数据包调用）
+     * 相同的种子生成相同的粒子，效果与原先服务端逐个发送的粒子一致
+     * @param x 爆发中心X坐标
+     * @param y 爆发中心Y坐标
+     * @param z 爆发中心Z坐标
+     * @param seed 随机种子
+     * @param intensity 爆发强度（粒子数量的倍数）
+     */
+    public static void spawnShieldBreakBurst(double x, double y, double z, long seed, float intensity) {
+        Minecraft minecraft = Minecraft.getInstance();
+        if (minecraft.level == null) {
+            return;
+        }
+        
+        RandomSource random = RandomSource.create(seed);
+        // 按距离、粒子设置和本刻预算缩减粒子数量
+        int count = ShieldParticleBudget.allocate(x, y, z, Math.round(SHIELD_BREAK_PARTICLE_COUNT * intensity));
         
-        // 生成末影人传送粒子（护盾破裂时：数量增加到40个，范围扩大到2格）
-        for (int i = 0; i < 40; i++) {
+        // 生成末影人传送粒子（护盾破裂时：数量为40个，范围为2格）
+        for (int i = 0; i < count; i++) {
             // 计算粒子位置：距离中心0-2.0格（更大范围）
-            double offsetX = java.util.concurrent.ThreadLocalRandom.current().nextDouble(-2.0, 2.0);
-            double offsetY = java.util.concurrent.ThreadLocalRandom.current().nextDouble(-2.0, 2.0);
-            double offsetZ = java.util.concurrent.ThreadLocalRandom.current().nextDouble(-2.0, 2.0);
-            
-            // 计算粒子速度：X和Z轴向中心移动（归一化向量），Y轴单独向上
-            double speed = 0.3;
-            
-            // 计算X和Z轴向中心的方向向量
-            double dirX = -offsetX;
-            double dirZ = -offsetZ;
-            
-            // 计算X-Z平面向量的长度（模长）用于归一化
-            double length = Math.sqrt(dirX * dirX + dirZ * dirZ);
+            double offsetX = random.nextDouble() * 4.0 - 2.0;
+            double offsetY = random.nextDouble() * 4.0 - 2.0;
+            double offsetZ = random.nextDouble() * 4.0 - 2.0;
             
-            // 归一化X和Z轴向量并乘以速度
-            double velocityX = (dirX / length) * speed;
-            double velocityZ = (dirZ / length) * speed;
-            
-            // Y轴速度单独设置为向上
-            double velocityY = 0.3;
+            // X和Z轴向中心的方向（归一化后乘以0.3），Y轴向上0.3
+            double length = Math.sqrt(offsetX * offsetX + offsetZ * offsetZ);
+            double spreadX = (-offsetX / length) * 0.3;
+            double spreadY = 0.3;
+            double spreadZ = (-offsetZ / length) * 0.3;
             
-            // 在玩家位置生成末影人传送粒子
-            level.sendParticles(
+            // 与原版粒子数据包（数量1、速度0）的处理方式相同：按高斯分布在该方向上偏移，粒子本身不移动
+            minecraft.level.addParticle(
                 ParticleTypes.PORTAL,  // 末影人传送粒子效果
-                playerPos.x + offsetX, 
-                playerPos.y + offsetY, 
-                playerPos.z + offsetZ, 
-                1,  // 每个循环生成1个粒子
-                velocityX, velocityY, velocityZ, 
-                0  // 粒子速度无额外随机
+                x + offsetX + random.nextGaussian() * spreadX,
+                y + offsetY + random.nextGaussian() * spreadY,
+                z + offsetZ + random.nextGaussian() * spreadZ,
+                0.0, 0.0, 0.0
             );
         }
     }
@@ -83,6 +96,11 @@ public class ShieldParticleGenerator {
             return;
         }
         
+        // 本刻的粒子预算已用完时跳过实体检查
+        if (!ShieldParticleBudget.hasBudget()) {
+            return;
+        }
+        
         // 获取玩家周围火环范围内的所有非玩家生物
         ShieldConfig config = ShieldManager.getActiveShieldConfig(player);
         double radius = config.fireRingRadius;
@@ -107,7 +125,8 @@ public class ShieldParticleGenerator {
         double playerY = player.getY() + player.getBbHeight() / 2.0; // 玩家胸部位置
         double playerZ = player.getZ();
         
-        int particleCount = 10;
+        // 按距离、粒子设置和本刻预算缩减粒子数量
+        int particleCount = ShieldParticleBudget.allocate(playerX, playerY, playerZ, 10);
         // radius变量已经在上面定义过了，使用之前定义的值
         
         for (int i = 0; i < particleCount; i++) {
@@ -156,8 +175,9 @@ public class ShieldParticleGenerator {
         // 玩家.position()返回中心位置，也就是身高一半的位置
         Vec3 playerPos = minecraft.player.position().add(0, 0, 0);
         
-        // 生成末影人传送粒子（护盾值为零时：数量保持20个）
-        for (int i = 0; i < 20; i++) {
+        // 生成末影人传送粒子（护盾值为零时：数量保持20个，按粒子设置和本刻预算缩减）
+        int particleCount = ShieldParticleBudget.allocate(playerPos.x, playerPos.y, playerPos.z, 20);
+        for (int i = 0; i < particleCount; i++) {
             // 使用极坐标系统生成粒子位置：从半径0.1格的圆形边缘产生
             double radius = 0.1; // 将半径减小到0.1格
             double angle = java.util.concurrent.ThreadLocalRandom.current().nextDouble(0, 2 * Math.PI); // 随机角度
@@ -214,8 +234,9 @@ public class ShieldParticleGenerator {
         double playerY = player.getY() + player.getBbHeight() / 4.0; // 玩家中心
         double playerZ = player.getZ();
         
-        // 减少粒子数量到60个，避免遮挡视野
-        for (int i = 0; i < 60; i++) {
+        // 减少粒子数量到60个，避免遮挡视野（按粒子设置和本刻预算缩减）
+        int particleCount = ShieldParticleBudget.allocate(playerX, playerY, playerZ, 60);
+        for (int i = 0; i < particleCount; i++) {
             // 随机方向（从中心向外发散）
             double angle1 = minecraft.level.random.nextDouble() * Math.PI * 2; // 水平方向角度
             double angle2 = minecraft.level.random.nextDouble() * Math.PI; // 垂直方向角度